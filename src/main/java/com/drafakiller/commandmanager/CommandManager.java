@@ -1,16 +1,44 @@
 package com.drafakiller.commandmanager;
 
+import com.drafakiller.commandmanager.audit.AuditLog;
+import com.drafakiller.commandmanager.cache.ExpiringCache;
+import com.drafakiller.commandmanager.cache.OutputCache;
 import com.drafakiller.commandmanager.commands.AboutCommand;
 import com.drafakiller.commandmanager.commands.HelpCommand;
+import com.drafakiller.commandmanager.commands.PageCommand;
+import com.drafakiller.commandmanager.help.HelpIndex;
+import com.drafakiller.commandmanager.jfr.CommandEvents;
+import com.drafakiller.commandmanager.message.ComponentRenderer;
+import com.drafakiller.commandmanager.message.Messages;
+import com.drafakiller.commandmanager.message.OutputRenderer;
+import com.drafakiller.commandmanager.message.PlainText;
+import com.drafakiller.commandmanager.message.PlainTextRenderer;
+import com.drafakiller.commandmanager.offline.OfflinePlayerIndex;
+import com.drafakiller.commandmanager.page.Cursor;
+import com.drafakiller.commandmanager.page.Cursors;
+import com.drafakiller.commandmanager.page.PagedOutput;
+import com.drafakiller.commandmanager.schedule.ExecutionAffinity;
+import com.drafakiller.commandmanager.schedule.RegionDispatcher;
+import com.drafakiller.commandmanager.schedule.TickScheduler;
+import com.drafakiller.commandmanager.schedule.WorkUnit;
+import com.drafakiller.commandmanager.selector.PlayerSelector;
+import com.drafakiller.commandmanager.suggestion.SuggestionCache;
+import com.drafakiller.commandmanager.suggestion.SuggestionProvider;
+import com.drafakiller.commandmanager.tree.CommandTree;
+import com.drafakiller.commandmanager.tree.CompactCommandTree;
+import com.drafakiller.commandmanager.tree.TreeDiff;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.event.ClickEvent;
 import net.kyori.adventure.text.format.NamedTextColor;
 import net.kyori.adventure.text.format.TextDecoration;
 import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.command.BlockCommandSender;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandSender;
 import org.bukkit.command.PluginCommand;
 import org.bukkit.command.TabExecutor;
+import org.bukkit.entity.Entity;
 import org.bukkit.entity.Player;
 import org.bukkit.plugin.Plugin;
 import org.jetbrains.annotations.NotNull;
@@ -18,6 +46,7 @@ import org.jetbrains.annotations.Nullable;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -46,12 +75,72 @@ public class CommandManager implements TabExecutor {
 	public SubCommand main_subcommand;
 	
 	/**
-	 * List of {@link SubCommand}s that will be interpreted when onCommand and onTabComplete.
+	 * List of {@link SubCommand}s that will be interpreted when onCommand and onTabComplete, only changed while holding the manager's lock.
+	 * Change it with {@code addSubCommand} or {@code reload}, commands are run from a snapshot of it, see {@link #getTree()}.
+	 *
+	 * @deprecated read the sub commands with {@link #getSubCommands()}. Changes made straight to this list are only run once
+	 * {@code addSubCommand} or {@code reload} is called, it will stop being public in a future version.
 	 */
+	@Deprecated
 	public final ArrayList<SubCommand> subcommands = new ArrayList<>();
 	
+	/**
+	 * Snapshot of the sub commands being run, null when it must be taken again.
+	 */
+	protected volatile @Nullable CommandTree tree;
+	
 	public final PluginCommand command;
 	
+	/**
+	 * Audit trail where every dispatched command is recorded, none if null.
+	 */
+	public @Nullable AuditLog auditLog;
+	
+	/**
+	 * Index of the players who joined before, used by {@code %offlineplayer%}, none if null.
+	 */
+	public @Nullable OfflinePlayerIndex offlinePlayers;
+	
+	/**
+	 * Index of the sub commands' words, to search them in {@link HelpCommand}. Sub commands are added as they are registered.
+	 */
+	public final HelpIndex helpIndex = new HelpIndex();
+	
+	/**
+	 * Compact tree of generated sub commands, used when no regular sub command matches, none if null.
+	 */
+	public volatile @Nullable CompactCommandTree compactTree;
+	
+	/**
+	 * Cursor of each sender in the output of paged sub commands, kept for 5 minutes after last used.
+	 */
+	public final Cursors cursors = new Cursors(300000, 1000);
+	
+	/**
+	 * Moves through the pages of paged sub commands, added along with the first paged sub command.
+	 */
+	public final PageCommand pageCommand = new PageCommand();
+	
+	/**
+	 * Tab completion options of keywords with a {@link SuggestionProvider}, asked in the background and kept for 30 seconds.
+	 */
+	public final SuggestionCache suggestions;
+	
+	/**
+	 * Messages sent by the manager and the pre-made commands, translated by the locale of the player.
+	 */
+	public final Messages messages = new Messages();
+	
+	/**
+	 * Runs sub commands on the thread that owns their region, the main thread unless the server is regionized.
+	 */
+	public final RegionDispatcher dispatcher;
+	
+	/**
+	 * Scheduler where the work of budgeted {@link SubCommand}s is queued, spread over the ticks.
+	 */
+	public final TickScheduler scheduler;
+	
 	/**
 	 * Keywords are used to automatically check if the arguments requested by the {@link SubCommand} are valid.
 	 * <p>
@@ -60,12 +149,21 @@ public class CommandManager implements TabExecutor {
 	 * Keywords List:<br>
 	 *     - %number% checks if the argument is a number, intager.<br>
 	 *     - %decimal% checks if the argument is a decimal number.<br>
-	 *     - %player% checks if the argument is a valid player.<br>
+	 *     - %player% checks if the argument is a valid player, or a selector like {@code @a[distance=..50]} if the sub command accepts selectors.<br>
+	 *     - %offlineplayer% checks if the argument is a player who joined before, see {@link OfflinePlayerIndex}.<br>
 	 */
-	public static final String[] argumentKeywords = new String[] { "%number%", "%decimal%", "%player%" };
+	public static final String[] argumentKeywords = new String[] { "%number%", "%decimal%", "%player%", "%offlineplayer%" };
+	
+	/**
+	 * Max names suggested on tab completion for {@code %offlineplayer%}.
+	 */
+	protected static final int offlinePlayerOptionsLimit = 50;
 	
 	public CommandManager(Plugin plugin, String command) {
 		this.plugin = plugin;
+		this.dispatcher = RegionDispatcher.create(plugin);
+		this.suggestions = new SuggestionCache(30000, 300000, 1024, plugin.getLogger());
+		this.scheduler = new TickScheduler(plugin, this.messages, this.dispatcher);
 		
 		this.command = this.plugin.getServer().getPluginCommand(command);
 		if (this.command != null) {
@@ -80,9 +178,14 @@ public class CommandManager implements TabExecutor {
 	 * @param subcommand {@link SubCommand} to be added
 	 * @return this object, for chaining
 	 */
-	public @NotNull CommandManager addSubCommand(@NotNull SubCommand subcommand) {
+	public synchronized @NotNull CommandManager addSubCommand(@NotNull SubCommand subcommand) {
 		subcommand.manager = this;
 		subcommands.add(subcommand);
+		helpIndex.add(subcommand);
+		this.tree = null;
+		if (this.pageCommand.manager == null && isPaged(subcommand)) {
+			this.addSubCommand(this.pageCommand);
+		}
 		return this;
 	}
 	
@@ -95,6 +198,181 @@ public class CommandManager implements TabExecutor {
 	public @NotNull CommandManager setMainSubCommand(@NotNull SubCommand subcommand) {
 		subcommand.manager = this;
 		main_subcommand = subcommand;
+		if (this.pageCommand.manager == null && isPaged(subcommand)) {
+			this.addSubCommand(this.pageCommand);
+		}
+		return this;
+	}
+	
+	/**
+	 * Returns the {@link SubCommand}s that will be interpreted when onCommand and onTabComplete, as a read-only list.
+	 *
+	 * @return the top level sub commands, in order
+	 */
+	public @NotNull List<SubCommand> getSubCommands() {
+		return this.getTree().subcommands;
+	}
+	
+	/**
+	 * Returns the snapshot of the sub commands being run, taking it again if they were added since.
+	 *
+	 * @return the current tree
+	 */
+	public @NotNull CommandTree getTree() {
+		CommandTree tree = this.tree;
+		if (tree == null) {
+			synchronized (this) {
+				tree = this.tree;
+				if (tree == null) {
+					tree = new CommandTree(subcommands);
+					this.tree = tree;
+				}
+			}
+		}
+		return tree;
+	}
+	
+	/**
+	 * Replaces the sub commands by new definitions, like loaded again from configuration, and returns what changed.
+	 * <p>
+	 * The definitions are compared by name with the current sub commands: the ones defined the same are kept and not indexed again,
+	 * only the added, changed and removed ones are updated in the help index. The new tree is then swapped in at once,
+	 * commands being dispatched or tab completed keep running on the tree they started with.
+	 *
+	 * @param definitions new top level sub commands, must not be in use yet
+	 * @return the differences applied
+	 */
+	public synchronized @NotNull TreeDiff reload(@NotNull Collection<SubCommand> definitions) {
+		List<SubCommand> newSubCommands = new ArrayList<>(definitions);
+		if (this.pageCommand.manager != null && !newSubCommands.contains(this.pageCommand)) {
+			newSubCommands.add(this.pageCommand);
+		}
+		
+		TreeDiff diff = TreeDiff.compute(this.getTree().subcommands, newSubCommands);
+		for (SubCommand subcommand : diff.removed) {
+			helpIndex.remove(subcommand);
+		}
+		for (SubCommand subcommand : diff.replaced) {
+			helpIndex.remove(subcommand);
+		}
+		for (SubCommand subcommand : diff.changed) {
+			setManager(subcommand, this);
+			helpIndex.add(subcommand);
+		}
+		for (SubCommand subcommand : diff.added) {
+			setManager(subcommand, this);
+			helpIndex.add(subcommand);
+		}
+		
+		if (this.pageCommand.manager == null) {
+			for (SubCommand subcommand : diff.merged) {
+				if (isPaged(subcommand)) {
+					this.pageCommand.manager = this;
+					diff.merged.add(this.pageCommand);
+					diff.added.add(this.pageCommand);
+					helpIndex.add(this.pageCommand);
+					break;
+				}
+			}
+		}
+		
+		CommandTree tree = new CommandTree(diff.merged);
+		subcommands.clear();
+		subcommands.addAll(diff.merged);
+		this.tree = tree;
+		return diff;
+	}
+	
+	/**
+	 * Sets the manager of a {@link SubCommand} and of its sub commands.
+	 */
+	protected static void setManager(@NotNull SubCommand subcommand, @NotNull CommandManager manager) {
+		subcommand.manager = manager;
+		for (SubCommand child : subcommand.subcommands) {
+			setManager(child, manager);
+		}
+	}
+	
+	/**
+	 * Checks if a {@link SubCommand} or any of its sub commands is paged.
+	 */
+	protected static boolean isPaged(@NotNull SubCommand subcommand) {
+		if (subcommand.paged) {
+			return true;
+		}
+		for (SubCommand child : subcommand.subcommands) {
+			if (isPaged(child)) {
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	/**
+	 * Sets the {@link AuditLog} where every dispatched command will be recorded, and returns itself for chaining.
+	 * The log is not closed by the manager, close it when the plugin disables.
+	 *
+	 * @param auditLog audit log to record to, or null to stop recording
+	 * @return this object, for chaining
+	 */
+	public @NotNull CommandManager setAuditLog(@Nullable AuditLog auditLog) {
+		this.auditLog = auditLog;
+		return this;
+	}
+	
+	/**
+	 * Sets the {@link OfflinePlayerIndex} used to check and complete {@code %offlineplayer%}, and returns itself for chaining.
+	 * The index is not closed by the manager, close it when the plugin disables.
+	 *
+	 * @param offlinePlayers index of the players, or null to only accept players cached by the server
+	 * @return this object, for chaining
+	 */
+	public @NotNull CommandManager setOfflinePlayerIndex(@Nullable OfflinePlayerIndex offlinePlayers) {
+		this.offlinePlayers = offlinePlayers;
+		return this;
+	}
+	
+	/**
+	 * Sets the {@link CompactCommandTree} of generated sub commands, and returns itself for chaining.
+	 * Commands and tab completion run on it when no regular sub command matches the first argument.
+	 *
+	 * @param compactTree the tree, or null to remove it
+	 * @return this object, for chaining
+	 */
+	public synchronized @NotNull CommandManager setCompactTree(@Nullable CompactCommandTree compactTree) {
+		if (compactTree != null) {
+			for (SubCommand handler : compactTree.getHandlers()) {
+				handler.manager = this;
+				if (this.pageCommand.manager == null && isPaged(handler)) {
+					this.addSubCommand(this.pageCommand);
+				}
+			}
+		}
+		this.compactTree = compactTree;
+		return this;
+	}
+	
+	/**
+	 * Registers the {@link SuggestionProvider} of the tab completion options of a keyword, and returns itself for chaining.
+	 * Tab completion never waits for the provider, the options are asked in the background and used once known.
+	 *
+	 * @param keyword keyword, like {@code %warp%}
+	 * @param provider provider of the options
+	 * @return this object, for chaining
+	 */
+	public @NotNull CommandManager registerSuggestionProvider(@NotNull String keyword, @NotNull SuggestionProvider provider) {
+		this.suggestions.register(keyword, provider);
+		return this;
+	}
+	
+	/**
+	 * Sets how many milliseconds each tick can be spent running budgeted {@link SubCommand}s, and returns itself for chaining.
+	 *
+	 * @param milliseconds budget of each tick
+	 * @return this object, for chaining
+	 */
+	public @NotNull CommandManager setTickBudget(double milliseconds) {
+		this.scheduler.setBudget(milliseconds);
 		return this;
 	}
 	
@@ -105,13 +383,7 @@ public class CommandManager implements TabExecutor {
 	 * @return sub command found, otherwise null
 	 */
 	public @Nullable SubCommand getSubCommand(String name) {
-		for (SubCommand subcommand : subcommands) {
-			if (subcommand.name.equals(name) || Arrays.asList(subcommand.aliases).contains(name)) {
-				return subcommand;
-			}
-		}
-		
-		return null;
+		return name != null ? this.getTree().get(name) : null;
 	}
 	
 	/**
@@ -229,13 +501,14 @@ public class CommandManager implements TabExecutor {
 	 * Searches a list of {@link SubCommand}s to find and match the arguments requested.
 	 * Each argument must be a sub command's name, alias or usage. If the argument is another sub command then the search will continue inside that sub command instead.
 	 *
-	 * Keywords are checked here.
+	 * Keywords are checked here. Players matched by {@code %player%}, by name or selector, are kept in the result's targets.
 	 *
+	 * @param sender sender of the command, used to evaluate selectors, can be null to only accept player names
 	 * @param subcommands list of sub commands to search
 	 * @param arguments list of arguments to compare
 	 * @return the result of the query
 	 */
-	protected SubCommandResult querySubCommand(@NotNull ArrayList<SubCommand> subcommands, @NotNull String[] arguments) {
+	protected SubCommandResult querySubCommand(@Nullable CommandSender sender, @NotNull ArrayList<SubCommand> subcommands, @NotNull String[] arguments) {
 		if (arguments.length > 0) {
 			for (SubCommand subcommand : subcommands) {
 				if (subcommand.name.equals(arguments[0]) || Arrays.asList(subcommand.aliases).contains(arguments[0])) {
@@ -243,32 +516,30 @@ public class CommandManager implements TabExecutor {
 						if (subcommand.acceptOverflows) {
 							return new SubCommandResult(subcommand, arguments, 1);
 						} else {
-							SubCommandResult result = this.querySubCommand(subcommand.subcommands, Arrays.copyOfRange(arguments, 1, arguments.length));
+							SubCommandResult result = this.querySubCommand(sender, subcommand.subcommands, Arrays.copyOfRange(arguments, 1, arguments.length));
 							if (result.subcommand != null) {
-								return new SubCommandResult(result.subcommand, arguments, result.currentArgumentIndex + 1, result.isValid, result.isUsage, result.currentUsageIndex);
+								SubCommandResult parentResult = new SubCommandResult(result.subcommand, arguments, result.currentArgumentIndex + 1, result.isValid, result.isUsage, result.currentUsageIndex);
+								parentResult.targets = result.targets;
+								return parentResult;
 							} else {
+								List<Player> targets = new ArrayList<>();
 								boolean valid = true;
 								int i;
 								for (i = 0; i < subcommand.usage.length && i < arguments.length - 1; i++) {
-									List<String> usage = Arrays.asList(subcommand.usage[i]);
-									String argument = arguments[i + 1];
-									
-									if (!containsUnofficialArgumentKeywords(usage) && !(
-										(usage.contains(argument) && !isOfficialArgumentKeyword(argument)) ||
-										(usage.contains("%number%") && isStringInteger(argument)) ||
-										(usage.contains("%decimal%") && isStringDouble(argument)) ||
-										(usage.contains("%player%") && Bukkit.getPlayer(argument) != null)
-									)) {
+									if (!this.acceptsArgument(sender, subcommand.acceptSelectors, subcommand.usage[i], arguments[i + 1], targets)) {
 										valid = false;
 										break;
 									}
 								}
 								
+								SubCommandResult usageResult;
 								if (valid && arguments.length - 1 <= subcommand.usage.length) {
-									return new SubCommandResult(subcommand, arguments, i, true, true, i - 1);
+									usageResult = new SubCommandResult(subcommand, arguments, i, true, true, i - 1);
 								} else {
-									return new SubCommandResult(subcommand, arguments, i + 1, false, true, i - (valid ? 1 : 0));
+									usageResult = new SubCommandResult(subcommand, arguments, i + 1, false, true, i - (valid ? 1 : 0));
 								}
+								usageResult.targets = targets;
+								return usageResult;
 							}
 						}
 					} else {
@@ -280,16 +551,211 @@ public class CommandManager implements TabExecutor {
 		return new SubCommandResult(null, arguments, 0);
 	}
 	
+	protected SubCommandResult querySubCommand(@NotNull ArrayList<SubCommand> subcommands, @NotNull String[] arguments) {
+		return this.querySubCommand(null, subcommands, arguments);
+	}
+	
+	/**
+	 * Returns the arguments of a result with the aliases of the sub commands leading to its sub command replaced by their names, so every way of typing it reads the same.
+	 * The usage arguments are kept as they are.
+	 *
+	 * @param result result of the query
+	 * @return copy of the arguments
+	 */
+	public @NotNull String[] getCanonicalArguments(@NotNull SubCommandResult result) {
+		String[] arguments = result.arguments.clone();
+		
+		if (result.tree != null) {
+			int node = CompactCommandTree.ROOT;
+			for (int i = 0; i < arguments.length && node != result.node; i++) {
+				node = result.tree.getChild(node, arguments[i]);
+				if (node < 0) {
+					break;
+				}
+				arguments[i] = result.tree.getName(node);
+			}
+			return arguments;
+		}
+		
+		List<SubCommand> subcommands = this.getTree().subcommands;
+		for (int i = 0; i < arguments.length && subcommands != null; i++) {
+			SubCommand match = null;
+			for (SubCommand subcommand : subcommands) {
+				if (subcommand.name.equals(arguments[i]) || Arrays.asList(subcommand.aliases).contains(arguments[i])) {
+					match = subcommand;
+					break;
+				}
+			}
+			if (match == null) {
+				break;
+			}
+			arguments[i] = match.name;
+			subcommands = match == result.subcommand ? null : match.subcommands;
+		}
+		return arguments;
+	}
+	
+	/**
+	 * Same as {@code querySubCommand} on the permitted sub commands of a tree, but the first argument is looked up by name instead of checking every sub command.
+	 *
+	 * @param sender sender of the command
+	 * @param tree snapshot of the sub commands
+	 * @param arguments list of arguments to compare
+	 * @return the result of the query
+	 */
+	protected SubCommandResult querySubCommand(@NotNull CommandSender sender, @NotNull CommandTree tree, @NotNull String[] arguments) {
+		SubCommand subcommand = arguments.length > 0 ? tree.get(arguments[0], sender) : null;
+		if (subcommand == null) {
+			return new SubCommandResult(null, arguments, 0);
+		}
+		ArrayList<SubCommand> candidates = new ArrayList<>(1);
+		candidates.add(subcommand);
+		return this.querySubCommand(sender, candidates, arguments);
+	}
+	
+	/**
+	 * Checks if an argument is accepted by its usage: one of the predetermined arguments, a valid value of an official keyword, or anything if there's an unofficial keyword.
+	 * Players matched by {@code %player%} are added to the targets.
+	 *
+	 * @param sender sender of the command, used to evaluate selectors, can be null to only accept player names
+	 * @param acceptSelectors true if {@code %player%} accepts selectors
+	 * @param usages acceptable inputs of the argument
+	 * @param argument the argument to be checked
+	 * @param targets list to add the matched players to
+	 * @return true if the argument is accepted, otherwise false
+	 */
+	public boolean acceptsArgument(@Nullable CommandSender sender, boolean acceptSelectors, @NotNull String[] usages, @NotNull String argument, @NotNull List<Player> targets) {
+		List<String> usage = Arrays.asList(usages);
+		return containsUnofficialArgumentKeywords(usage) ||
+			(usage.contains(argument) && !isOfficialArgumentKeyword(argument)) ||
+			(usage.contains("%number%") && isStringInteger(argument)) ||
+			(usage.contains("%decimal%") && isStringDouble(argument)) ||
+			(usage.contains("%player%") && this.matchPlayers(sender, acceptSelectors, argument, targets)) ||
+			(usage.contains("%offlineplayer%") && this.isKnownPlayer(argument));
+	}
+	
+	/**
+	 * Checks if an argument matches online players for {@code %player%}, adding them to the targets.
+	 * Selectors are only accepted if the sub command accepts them and there is a sender, otherwise only an online player's name.
+	 *
+	 * @return true if any player matched, otherwise false
+	 */
+	protected boolean matchPlayers(@Nullable CommandSender sender, boolean acceptSelectors, @NotNull String argument, @NotNull List<Player> targets) {
+		if (acceptSelectors && sender != null && PlayerSelector.isSelector(argument)) {
+			PlayerSelector selector = PlayerSelector.parse(argument);
+			if (selector == null) {
+				return false;
+			}
+			List<Player> players = selector.select(sender);
+			targets.addAll(players);
+			return !players.isEmpty();
+		}
+		
+		Player player = Bukkit.getPlayer(argument);
+		if (player != null) {
+			targets.add(player);
+			return true;
+		}
+		return false;
+	}
+	
+	/**
+	 * Checks if an argument is the name of a player who joined before, for {@code %offlineplayer%}.
+	 * Uses the {@link OfflinePlayerIndex} if there is one, otherwise only the players the server has cached, never asking the server to look one up.
+	 *
+	 * @param argument name to be checked
+	 * @return true if the player is known, otherwise false
+	 */
+	public boolean isKnownPlayer(@NotNull String argument) {
+		if (this.offlinePlayers != null) {
+			return this.offlinePlayers.contains(argument);
+		}
+		return Bukkit.getOfflinePlayerIfCached(argument) != null;
+	}
+	
+	/**
+	 * Adds the tab completion options of an argument's usage: the predetermined arguments, the values accepted by official keywords and the options of keywords with a {@link SuggestionProvider}.
+	 *
+	 * @param options list to add the options to
+	 * @param acceptSelectors true if {@code %player%} accepts selectors
+	 * @param usages acceptable inputs of the argument
+	 * @param argument the argument being typed
+	 */
+	public void addUsageOptions(@NotNull List<String> options, boolean acceptSelectors, @NotNull String[] usages, @NotNull String argument) {
+		for (String usage : usages) {
+			if (usage.equals("%player%")) {
+				this.addPlayerOptions(options, acceptSelectors);
+			} else if (usage.equals("%offlineplayer%")) {
+				if (this.offlinePlayers != null) {
+					options.addAll(this.offlinePlayers.complete(argument, offlinePlayerOptionsLimit));
+				} else {
+					this.addPlayerOptions(options, acceptSelectors);
+				}
+			} else if (!isArgumentKeyword(usage)) {
+				options.add(usage);
+			} else if (this.suggestions.hasProvider(usage)) {
+				options.addAll(this.suggestions.get(usage, argument));
+			}
+		}
+	}
+	
+	/**
+	 * Adds the names of the online players to the tab completion options, and the selectors if the sub command accepts them.
+	 */
+	protected void addPlayerOptions(@NotNull List<String> options, boolean acceptSelectors) {
+		for (Player player : Bukkit.getServer().getOnlinePlayers()) {
+			options.add(player.getName());
+		}
+		if (acceptSelectors) {
+			options.addAll(Arrays.asList(PlayerSelector.SELECTORS));
+		}
+	}
+	
+	/**
+	 * Checks if a sender gets its messages as plain text, written without building components. By default the console, RCON and command blocks.
+	 *
+	 * @param sender sender to be checked
+	 * @return true if the sender gets plain text, otherwise false
+	 */
+	public boolean usesPlainText(@NotNull CommandSender sender) {
+		return PlainText.isPlainTextSender(sender);
+	}
+	
+	/**
+	 * Returns a new renderer of a message for a sender, writing plain text if the sender {@code usesPlainText}, otherwise a component.
+	 *
+	 * @param sender sender the message is for
+	 * @return the renderer
+	 */
+	public @NotNull OutputRenderer renderer(@NotNull CommandSender sender) {
+		return this.usesPlainText(sender) ? new PlainTextRenderer(this.messages, sender) : new ComponentRenderer(this.messages, sender);
+	}
+	
 	protected void sendErrorMessage(@NotNull CommandSender sender, String[] arguments, Integer currentArgumentIndex) {
+		if (this.usesPlainText(sender)) {
+			StringBuilder message = PlainText.buffer();
+			this.messages.appendPlain(message, sender, "error.prefix", this.plugin.getName());
+			this.messages.appendPlain(message, sender, "error.incorrect-argument").append('\n').append('/').append(this.plugin.getName());
+			for (int i = 0; i < arguments.length; i++) {
+				message.append(' ');
+				if (i == currentArgumentIndex) {
+					message.append(">> ");
+				}
+				message.append(arguments[i]);
+			}
+			PlainText.send(sender, message);
+			return;
+		}
+		
 		String rightCommand = String.join(" ", Arrays.copyOfRange(arguments, 0, currentArgumentIndex));
 		String wrongCommand = String.join(" ", Arrays.copyOfRange(arguments, currentArgumentIndex, arguments.length));
 		if (sender instanceof Player) {
 			Player player = (Player) sender;
 			player.sendMessage(
 				Component.text()
-					.append(Component.text("[" + this.plugin.getName() + "]", NamedTextColor.RED, TextDecoration.BOLD)
+					.append(this.messages.render(player, "error.prefix", this.plugin.getName())
 						.clickEvent(ClickEvent.runCommand("/" + this.command.getName() + " help")))
-					.append(Component.text(" Incorrect argument for command:", NamedTextColor.RED, TextDecoration.BOLD))
+					.append(this.messages.render(player, "error.incorrect-argument"))
 					.append(Component.newline())
 					.append(Component.text()
 						.append(Component.text("/" + this.plugin.getName() + " " + rightCommand + (currentArgumentIndex > 0 ? " " : ""), NamedTextColor.GRAY))
@@ -308,7 +774,7 @@ public class CommandManager implements TabExecutor {
 	 */
 	public ArrayList<SubCommand> getPermittedSubCommands(CommandSender sender) {
 		ArrayList<SubCommand> permittedList = new ArrayList<>();
-		for (SubCommand subcommand : subcommands) {
+		for (SubCommand subcommand : this.getTree().subcommands) {
 			if (subcommand.senderHasPermission(sender)) {
 				permittedList.add(subcommand);
 			}
@@ -316,6 +782,163 @@ public class CommandManager implements TabExecutor {
 		return permittedList;
 	}
 	
+	/**
+	 * Runs the {@link SubCommand} found by the query on the thread of its {@link ExecutionAffinity}, right away if already on it.
+	 * If the sender is removed before it can run, the command is recorded as not accepted.
+	 */
+	protected void dispatch(@NotNull CommandSender sender, @NotNull Command command, @NotNull String label, @NotNull String[] arguments, @NotNull SubCommandResult result) {
+		Object queueEvent = CommandEvents.beginQueue();
+		this.runWithAffinity(sender, result, () -> {
+			CommandEvents.commitQueue(queueEvent, command.getName(), result.subcommand.name, false);
+			this.execute(sender, command, label, arguments, result);
+		}, () -> {
+			CommandEvents.commitQueue(queueEvent, command.getName(), result.subcommand.name, true);
+			this.audit(sender, label, arguments, false);
+		}, true);
+	}
+	
+	/**
+	 * Runs a task on the thread of the {@link ExecutionAffinity} of the result's {@link SubCommand}.
+	 *
+	 * @param inline true to run right away if already on that thread, false to always run on a later tick
+	 */
+	protected void runWithAffinity(@NotNull CommandSender sender, @NotNull SubCommandResult result, @NotNull Runnable task, boolean inline) {
+		this.runWithAffinity(sender, result, task, null, inline);
+	}
+	
+	/**
+	 * Runs a task on the thread given by the affinity of the sub command, or the retired task instead if the sender is an entity removed before the task could run.
+	 */
+	protected void runWithAffinity(@NotNull CommandSender sender, @NotNull SubCommandResult result, @NotNull Runnable task, @Nullable Runnable retired, boolean inline) {
+		SubCommand subcommand = result.subcommand;
+		
+		if (subcommand.affinity == ExecutionAffinity.ASYNC) {
+			this.dispatcher.runAsync(task);
+			return;
+		}
+		
+		Location location = null;
+		if (subcommand.affinity == ExecutionAffinity.LOCATION) {
+			location = subcommand.getTargetLocation(sender, result);
+		}
+		if (location == null && subcommand.affinity != ExecutionAffinity.GLOBAL) {
+			if (sender instanceof Entity) {
+				Entity entity = (Entity) sender;
+				if (inline && this.dispatcher.isOwnedByCurrentRegion(entity)) {
+					task.run();
+				} else {
+					this.dispatcher.runForEntity(entity, task, retired);
+				}
+				return;
+			}
+			if (sender instanceof BlockCommandSender) {
+				location = ((BlockCommandSender) sender).getBlock().getLocation();
+			}
+		}
+		
+		if (location != null) {
+			if (inline && this.dispatcher.isOwnedByCurrentRegion(location)) {
+				task.run();
+			} else {
+				this.dispatcher.runAt(location, task);
+			}
+		} else if (inline && this.dispatcher.isGlobalThread()) {
+			task.run();
+		} else {
+			this.dispatcher.runGlobal(task);
+		}
+	}
+	
+	/**
+	 * Runs the {@link SubCommand}, budgeted sub commands have their work queued in the {@link TickScheduler} instead, paged sub commands have their first page shown,
+	 * and cacheable sub commands have their cached output sent if there is one. Then records the command.
+	 *
+	 * @return true if the sub command accepted, otherwise false
+	 */
+	protected boolean execute(@NotNull CommandSender sender, @NotNull Command command, @NotNull String label, @NotNull String[] arguments, @NotNull SubCommandResult result) {
+		Object event = CommandEvents.beginExecute();
+		SubCommand subcommand = result.subcommand;
+		boolean accepted;
+		
+		if (subcommand.outputCache != null) {
+			accepted = this.sendCachedOutput(sender, command, label, result);
+		} else if (subcommand.paged) {
+			PagedOutput output = subcommand.onPagedCommand(sender, command, label, result);
+			accepted = output != null;
+			if (accepted) {
+				Cursor cursor = this.cursors.open(sender, output);
+				this.pageCommand.showPage(sender, cursor, cursor.next());
+			}
+		} else if (subcommand.budgeted) {
+			WorkUnit work = subcommand.onBudgetedCommand(sender, command, label, result);
+			accepted = work != null;
+			if (accepted) {
+				this.scheduler.schedule(sender, work, (step, retired) -> this.runWithAffinity(sender, result, step, retired, true));
+			}
+		} else {
+			Boolean commandResult = subcommand.onCommand(sender, command, label, result);
+			accepted = commandResult != null && commandResult;
+		}
+		
+		this.audit(sender, label, arguments, accepted);
+		CommandEvents.commitExecute(event, command.getName(), subcommand.name, accepted);
+		return accepted;
+	}
+	
+	/**
+	 * Sends the output of a cacheable {@link SubCommand}, from its {@link OutputCache} if there, otherwise from {@code onCachedCommand}, keeping it.
+	 * A stale output is sent as well, and refreshed on a later tick.
+	 *
+	 * @return true if an output was sent, false if the sub command denied
+	 */
+	protected boolean sendCachedOutput(@NotNull CommandSender sender, @NotNull Command command, @NotNull String label, @NotNull SubCommandResult result) {
+		SubCommand subcommand = result.subcommand;
+		OutputCache cache = subcommand.outputCache;
+		String key = cache.getKey(this, sender, result);
+		
+		if (key == null) {
+			Component output = subcommand.onCachedCommand(sender, command, label, result);
+			if (output == null) {
+				return false;
+			}
+			sender.sendMessage(output);
+			return true;
+		}
+		
+		ExpiringCache.Entry<Component> entry = cache.outputs.get(key);
+		if (entry != null) {
+			sender.sendMessage(entry.value);
+			if (cache.outputs.shouldRefresh(entry)) {
+				this.runWithAffinity(sender, result, () -> {
+					Component output = subcommand.onCachedCommand(sender, command, label, result);
+					if (output != null) {
+						cache.outputs.put(key, output);
+					} else {
+						cache.outputs.remove(key);
+					}
+				}, false);
+			}
+			return true;
+		}
+		
+		Component output = subcommand.onCachedCommand(sender, command, label, result);
+		if (output == null) {
+			return false;
+		}
+		cache.outputs.put(key, output);
+		sender.sendMessage(output);
+		return true;
+	}
+	
+	/**
+	 * Records a dispatched command into the {@link AuditLog}, if there is one.
+	 */
+	protected void audit(@NotNull CommandSender sender, @NotNull String label, @NotNull String[] arguments, boolean accepted) {
+		if (this.auditLog != null) {
+			this.auditLog.record(sender, label, arguments, accepted);
+		}
+	}
+	
 	/**
 	 * Searches for the {@link SubCommand} and executes it. If no sub command was found or if the sub command denies, a error message is shown.
 	 *
@@ -323,16 +946,26 @@ public class CommandManager implements TabExecutor {
 	 */
 	@Override
 	public boolean onCommand(@NotNull CommandSender sender, @NotNull Command command, @NotNull String label, @NotNull String[] arguments) {
+		Object event = CommandEvents.beginDispatch();
+		
 		if (arguments.length > 0) {
-			SubCommandResult result = this.querySubCommand(this.getPermittedSubCommands(sender), arguments);
+			SubCommandResult result = this.querySubCommand(sender, this.getTree(), arguments);
+			CompactCommandTree compactTree = this.compactTree;
+			if (result.subcommand == null && compactTree != null) {
+				result = compactTree.query(this, sender, arguments);
+			}
 			
 			if (result.isValid()) {
-				result.subcommand.onCommand(sender, command, label, result);
+				CommandEvents.commitDispatch(event, command.getName(), arguments, result.subcommand.name, true);
+				this.dispatch(sender, command, label, arguments, result);
 			} else {
 				this.sendErrorMessage(sender, arguments, result.currentArgumentIndex);
+				this.audit(sender, label, arguments, false);
+				CommandEvents.commitDispatch(event, command.getName(), arguments, null, false);
 			}
 		} else if (this.main_subcommand != null) {
-			this.main_subcommand.onCommand(sender, command, label, new SubCommandResult(this.main_subcommand, arguments, null));
+			CommandEvents.commitDispatch(event, command.getName(), arguments, this.main_subcommand.name, true);
+			this.dispatch(sender, command, label, arguments, new SubCommandResult(this.main_subcommand, arguments, null));
 		}
 		
 		return true;
@@ -340,12 +973,17 @@ public class CommandManager implements TabExecutor {
 	
 	@Override
 	public @Nullable List<String> onTabComplete(@NotNull CommandSender sender, @NotNull Command command, @NotNull String alias, @NotNull String[] arguments) {
+		Object event = CommandEvents.beginTabComplete();
 		List<String> options = new ArrayList<>();
 		
+		CompactCommandTree compactTree = this.compactTree;
 		if (arguments.length > 1) {
-			SubCommandResult result = this.querySubCommand(this.getPermittedSubCommands(sender), Arrays.copyOfRange(arguments, 0, arguments.length - 1));
+			SubCommandResult result = this.querySubCommand(sender, this.getTree(), Arrays.copyOfRange(arguments, 0, arguments.length - 1));
 			
-			if (result.isValid() && !(result.isUsage && !(result.currentUsageIndex + 1 <= result.subcommand.usage.length - 1))) {
+			if (result.subcommand == null && compactTree != null) {
+				// Like commands, the compact tree is only used when no regular sub command matches the first argument.
+				compactTree.complete(this, sender, command, alias, arguments, options);
+			} else if (result.isValid() && !(result.isUsage && !(result.currentUsageIndex + 1 <= result.subcommand.usage.length - 1))) {
 				if (!result.isUsage) {
 					for (SubCommand subcommand : result.subcommand.getPermittedSubCommands(sender)) {
 						if (subcommand.name.length() > 0) {
@@ -354,26 +992,10 @@ public class CommandManager implements TabExecutor {
 					}
 					
 					if (result.subcommand.usage.length > 0) {
-						for (String usage : result.subcommand.usage[0]) {
-							if (usage.equals("%player%")) {
-								for (Player player : Bukkit.getServer().getOnlinePlayers()) {
-									options.add(player.getName());
-								}
-							} else if (!isArgumentKeyword(usage)) {
-								options.add(usage);
-							}
-						}
+						this.addUsageOptions(options, result.subcommand.acceptSelectors, result.subcommand.usage[0], arguments[arguments.length - 1]);
 					}
 				} else if (result.currentUsageIndex + 1 < result.subcommand.usage.length) {
-					for (String usage : result.subcommand.usage[result.currentUsageIndex + 1]) {
-						if (usage.equals("%player%")) {
-							for (Player player : Bukkit.getServer().getOnlinePlayers()) {
-								options.add(player.getName());
-							}
-						} else if (!isArgumentKeyword(usage)) {
-							options.add(usage);
-						}
-					}
+					this.addUsageOptions(options, result.subcommand.acceptSelectors, result.subcommand.usage[result.currentUsageIndex + 1], arguments[arguments.length - 1]);
 				}
 				
 				List<String> tabResult = result.subcommand.onTabComplete(sender, command, alias, result);
@@ -387,6 +1009,9 @@ public class CommandManager implements TabExecutor {
 					options.add(subcommand.name);
 				}
 			}
+			if (compactTree != null) {
+				compactTree.complete(this, sender, command, alias, arguments, options);
+			}
 		}
 		
 		for (int i = options.size() - 1; i >= 0; i--) {
@@ -395,6 +1020,7 @@ public class CommandManager implements TabExecutor {
 			}
 		}
 		
+		CommandEvents.commitTabComplete(event, command.getName(), arguments, options.size());
 		return options;
 	}
 	
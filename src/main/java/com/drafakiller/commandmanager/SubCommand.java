@@ -1,7 +1,18 @@
 package com.drafakiller.commandmanager;
 
+import com.drafakiller.commandmanager.cache.OutputCache;
 import com.drafakiller.commandmanager.commands.AboutCommand;
 import com.drafakiller.commandmanager.commands.HelpCommand;
+import com.drafakiller.commandmanager.commands.PageCommand;
+import com.drafakiller.commandmanager.jfr.CommandEvents;
+import com.drafakiller.commandmanager.page.Cursor;
+import com.drafakiller.commandmanager.page.PagedOutput;
+import com.drafakiller.commandmanager.schedule.ExecutionAffinity;
+import com.drafakiller.commandmanager.schedule.TickScheduler;
+import com.drafakiller.commandmanager.schedule.WorkUnit;
+import com.drafakiller.commandmanager.selector.PlayerSelector;
+import net.kyori.adventure.text.Component;
+import org.bukkit.Location;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandSender;
 import org.bukkit.plugin.Plugin;
@@ -9,6 +20,8 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -29,18 +42,36 @@ import java.util.List;
  *     - {@code %number%} accepts a number.<br>
  *     - {@code %integer%} accepts an integer.<br>
  *     - {@code %player%} accepts a valid online player.<br>
+ *     - {@code %offlineplayer%} accepts a player who joined before.<br>
  * <p>
  * Allow any input (and to deal them with internally) by using {@code acceptOverflows}, setting it to true will always accept any length of arguments.
  * <p>
+ * Setting {@code acceptSelectors} to true lets {@code %player%} also accept selectors like {@code @a}, {@code @p} or {@code @a[distance=..50]}, see {@link PlayerSelector}.
+ * The sub command is called once, with every player matched in the result's {@code targets}.
+ * <p>
  * While {@code onCommand} and {@code onTabComplete}:<br>
  * - Reject a command query by returning false, which will automatically display an error message for invalid argument, returning true will tell the manager that everything is okay.<br>
  * - The information of the search which resulted on the sub command is accessible with {@link SubCommandResult}, which contains the arguments and others.
  * <p>
  * Every time the manager needs to check if a player has the permission to acknowledge or run a sub command, {@code onPermission} will be called, returning true will allow and false will disallow.
  * <p>
+ * Sub commands with heavy main thread work can set {@code budgeted} to true and implement {@code onBudgetedCommand} instead of {@code onCommand}, returning a {@link WorkUnit}.
+ * The work is then queued in the manager's {@link TickScheduler} and run a step at a time, within a budget of milliseconds per tick.
+ * <p>
+ * Read-only sub commands, where everyone running them with the same arguments sees the same, can set an {@link OutputCache} to {@code outputCache} and implement {@code onCachedCommand}
+ * instead of {@code onCommand}, returning the output. The manager keeps the output and sends it again without calling the sub command while it's cached.
+ * <p>
+ * Sub commands listing many rows can set {@code paged} to true and implement {@code onPagedCommand} instead of {@code onCommand}, returning a {@link PagedOutput}.
+ * The manager shows its first page and keeps a {@link Cursor} for the sender, {@link PageCommand} then continues from it to the next or previous page.
+ * <p>
+ * Sub commands loaded from configuration can be reloaded with {@link CommandManager#reload(Collection)}, sub commands with the same definition, see {@code isSameDefinition}, are kept as they are.
+ * <p>
+ * On regionized servers, like Folia, the sub command runs on the thread given by its {@code affinity}, see {@link ExecutionAffinity}.
+ * For {@code LOCATION}, the location is given by {@code getTargetLocation}.
+ * <p>
  * Also see: {@link CommandManager} and {@link SubCommandResult}.
  * <p>
- * Pre-made commands: {@link HelpCommand} and {@link AboutCommand}.
+ * Pre-made commands: {@link HelpCommand}, {@link AboutCommand} and {@link PageCommand}.
  */
 public abstract class SubCommand {
 	
@@ -52,6 +83,11 @@ public abstract class SubCommand {
 	public String[] aliases = new String[0];
 	public String[][] usage = new String[0][];
 	public Boolean acceptOverflows = false;
+	public Boolean acceptSelectors = false;
+	public Boolean budgeted = false;
+	public Boolean paged = false;
+	public ExecutionAffinity affinity = ExecutionAffinity.SENDER;
+	public @Nullable OutputCache outputCache;
 	
 	public Plugin getPlugin() {
 		if (this.manager != null) {
@@ -67,8 +103,41 @@ public abstract class SubCommand {
 		return this;
 	}
 	
+	/**
+	 * Checks if another sub command is defined the same as this one: same class, name, aliases, info, usage, options and sub commands.
+	 * Used when the manager reloads, to keep the sub commands that didn't change. Sub commands with more of their own definition, like loaded from configuration, should compare it as well.
+	 *
+	 * @param other sub command to be compared
+	 * @return true if both are defined the same, otherwise false
+	 */
+	public boolean isSameDefinition(@NotNull SubCommand other) {
+		if (other.getClass() != this.getClass()
+			|| !name.equals(other.name)
+			|| !info.equals(other.info)
+			|| !Arrays.equals(aliases, other.aliases)
+			|| !Arrays.deepEquals(usage, other.usage)
+			|| !acceptOverflows.equals(other.acceptOverflows)
+			|| !acceptSelectors.equals(other.acceptSelectors)
+			|| !budgeted.equals(other.budgeted)
+			|| !paged.equals(other.paged)
+			|| affinity != other.affinity
+			|| (outputCache == null) != (other.outputCache == null)
+			|| subcommands.size() != other.subcommands.size()) {
+			return false;
+		}
+		for (int i = 0; i < subcommands.size(); i++) {
+			if (!subcommands.get(i).isSameDefinition(other.subcommands.get(i))) {
+				return false;
+			}
+		}
+		return true;
+	}
+	
 	public boolean senderHasPermission(CommandSender sender) {
-		return onPermission(sender);
+		Object event = CommandEvents.beginPermissionCheck();
+		Boolean permitted = onPermission(sender);
+		CommandEvents.commitPermissionCheck(event, this.name, sender, permitted);
+		return permitted;
 	}
 	
 	public ArrayList<SubCommand> getPermittedSubCommands(@NotNull CommandSender sender) {
@@ -89,6 +158,43 @@ public abstract class SubCommand {
 		return false;
 	}
 	
+	/**
+	 * Called instead of {@code onCommand} when the sub command is {@code budgeted}, the work returned is queued and run over the next ticks.
+	 *
+	 * @return the work to be run, or null to deny the command
+	 */
+	public @Nullable WorkUnit onBudgetedCommand(@NotNull CommandSender sender, @NotNull Command command, @NotNull String label, SubCommandResult result) {
+		return null;
+	}
+	
+	/**
+	 * Called instead of {@code onCommand} when the sub command has an {@code outputCache} and no output is cached for the arguments, or to refresh a stale output.
+	 * Must not send anything, the manager sends the output.
+	 *
+	 * @return the output to be sent and cached, or null to deny the command
+	 */
+	public @Nullable Component onCachedCommand(@NotNull CommandSender sender, @NotNull Command command, @NotNull String label, SubCommandResult result) {
+		return null;
+	}
+	
+	/**
+	 * Called instead of {@code onCommand} when the sub command is {@code paged}. Must not send anything, the manager shows the pages.
+	 *
+	 * @return the output, read a page at a time, or null to deny the command
+	 */
+	public @Nullable PagedOutput onPagedCommand(@NotNull CommandSender sender, @NotNull Command command, @NotNull String label, SubCommandResult result) {
+		return null;
+	}
+	
+	/**
+	 * Called before running a sub command with the {@code LOCATION} affinity, to know on which region it must run.
+	 *
+	 * @return the location the sub command works on, or null to run on the region of the sender
+	 */
+	public @Nullable Location getTargetLocation(@NotNull CommandSender sender, SubCommandResult result) {
+		return null;
+	}
+	
 	public @Nullable List<String> onTabComplete(@NotNull CommandSender sender, @NotNull Command command, @NotNull String alias, SubCommandResult result) {
 		return null;
 	}
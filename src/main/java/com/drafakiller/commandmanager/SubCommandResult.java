@@ -1,8 +1,13 @@
 package com.drafakiller.commandmanager;
 
+import com.drafakiller.commandmanager.tree.CompactCommandTree;
+import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.Collections;
+import java.util.List;
+
 public class SubCommandResult {
 	public SubCommand subcommand;
 	public String[] arguments;
@@ -11,6 +16,17 @@ public class SubCommandResult {
 	public Boolean isValid = true;
 	public Boolean isUsage = false;
 	
+	/**
+	 * Online players matched by the {@code %player%} arguments, by name or selector, in order.
+	 */
+	public List<Player> targets = Collections.emptyList();
+	
+	/**
+	 * Tree and node matched, when the sub command is the handler of a node of a {@link CompactCommandTree}, otherwise null and -1.
+	 */
+	public @Nullable CompactCommandTree tree;
+	public int node = -1;
+	
 	public SubCommandResult(@Nullable SubCommand subcommand, @NotNull String[] arguments, @Nullable Integer currentArgumentIndex) {
 		this.subcommand = subcommand;
 		this.arguments = arguments;
@@ -32,7 +48,18 @@ public class SubCommandResult {
 		}
 	}
 	
+	public @NotNull List<Player> getTargets() {
+		return targets;
+	}
+	
 	public Boolean isValid() {
-		return isValid && subcommand != null && this.getCurrentArgument() != null && !(isUsage && subcommand.usage.length <= 0);
+		return isValid && subcommand != null && this.getCurrentArgument() != null && !(isUsage && this.getUsage().length <= 0);
+	}
+	
+	/**
+	 * Returns the usage of what was matched, the node's when matched in a {@link CompactCommandTree}, otherwise the sub command's.
+	 */
+	public @NotNull String[][] getUsage() {
+		return tree != null ? tree.getUsage(node) : subcommand.usage;
 	}
 }
@@ -0,0 +1,69 @@
+package com.drafakiller.commandmanager.audit;
+
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Entity;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.UUID;
+
+/**
+ * A single dispatched command, as recorded by the {@link AuditLog} and returned by the {@link AuditLogReader}.
+ * <p>
+ * The arguments are kept as given by the server and only joined when written, so creating an event on the main thread stays cheap.
+ */
+public final class AuditEvent {
+	
+	/**
+	 * Time of the dispatch, in milliseconds since the epoch.
+	 */
+	public final long time;
+	
+	/**
+	 * Name of the sender, the console's name for non entity senders.
+	 */
+	public final @NotNull String sender;
+	
+	/**
+	 * Unique id of the sender, only for entities.
+	 */
+	public final @Nullable UUID senderId;
+	
+	public final @NotNull String label;
+	public final @NotNull String[] arguments;
+	
+	/**
+	 * Whether the command was accepted, false if no sub command matched or the sub command denied it.
+	 */
+	public final boolean accepted;
+	
+	public AuditEvent(long time, @NotNull String sender, @Nullable UUID senderId, @NotNull String label, @NotNull String[] arguments, boolean accepted) {
+		this.time = time;
+		this.sender = sender;
+		this.senderId = senderId;
+		this.label = label;
+		this.arguments = arguments;
+		this.accepted = accepted;
+	}
+	
+	public AuditEvent(@NotNull CommandSender sender, @NotNull String label, @NotNull String[] arguments, boolean accepted) {
+		this(System.currentTimeMillis(), sender.getName(), sender instanceof Entity ? ((Entity) sender).getUniqueId() : null, label, arguments, accepted);
+	}
+	
+	/**
+	 * Returns the full command line, as typed by the sender.
+	 *
+	 * @return the label followed by the arguments
+	 */
+	public @NotNull String getCommandLine() {
+		if (arguments.length == 0) {
+			return "/" + label;
+		}
+		return "/" + label + " " + String.join(" ", arguments);
+	}
+	
+	@Override
+	public String toString() {
+		return time + " " + sender + (accepted ? " ran " : " failed ") + getCommandLine();
+	}
+}
@@ -0,0 +1,321 @@
+package com.drafakiller.commandmanager.audit;
+
+import org.bukkit.command.CommandSender;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Append-only audit trail of every command dispatched by a {@link com.drafakiller.commandmanager.CommandManager}.
+ * <p>
+ * Recording an event only hands it to a lock-free {@link AuditRingBuffer}, a background thread then writes the events in batches to the current log file.
+ * Once the file passes the max size a new file is started, and the oldest files are deleted when there are more than the max files.
+ * If the writer falls behind and the buffer fills up, new events are dropped and counted instead of slowing the command down.
+ * <p>
+ * Files are named {@code audit-<time of the first event>.log}, and can be queried with {@link AuditLogReader}.
+ * <p>
+ * Settings can be changed at any time, the writer picks them up from its next batch.
+ * <p>
+ * Close the log when the plugin disables, so the remaining events are written.
+ */
+public class AuditLog implements Closeable {
+	
+	protected static final String FILE_PREFIX = "audit-";
+	protected static final String FILE_SUFFIX = ".log";
+	
+	protected static final byte FLAG_ACCEPTED = 1;
+	protected static final byte FLAG_SENDER_ID = 2;
+	
+	protected final File directory;
+	protected final AuditRingBuffer buffer;
+	protected final Thread writer;
+	protected final Logger logger;
+	protected final AtomicLong dropped = new AtomicLong();
+	
+	/**
+	 * Threads between checking {@code running} and queuing their event, the writer waits for them before its last batch.
+	 */
+	protected final AtomicInteger recording = new AtomicInteger();
+	
+	protected volatile boolean running = true;
+	
+	/**
+	 * Settings read by the writer, which is already running when the setters are called.
+	 */
+	protected volatile long maxFileSize = 16 * 1024 * 1024;
+	protected volatile int maxFiles = 16;
+	protected volatile int batchSize = 512;
+	protected volatile long flushInterval = 50;
+	
+	protected FileChannel channel;
+	protected long channelSize;
+	protected final ByteBuffer output = ByteBuffer.allocateDirect(64 * 1024);
+	protected final ArrayList<AuditEvent> batch = new ArrayList<>();
+	
+	/**
+	 * @param directory folder where the log files are kept
+	 * @param capacity max events waiting to be written
+	 * @param logger logger to report write failures to
+	 */
+	public AuditLog(@NotNull File directory, int capacity, @NotNull Logger logger) {
+		this.directory = directory;
+		this.buffer = new AuditRingBuffer(capacity);
+		this.logger = logger;
+		
+		this.writer = new Thread(this::run, "CommandManager Audit Writer");
+		this.writer.setDaemon(true);
+		this.writer.start();
+	}
+	
+	public AuditLog(@NotNull File directory, @NotNull Logger logger) {
+		this(directory, 8192, logger);
+	}
+	
+	/**
+	 * Sets the size a log file can reach before a new one is started, and returns itself for chaining.
+	 *
+	 * @param maxFileSize size in bytes
+	 * @return this object, for chaining
+	 */
+	public @NotNull AuditLog setMaxFileSize(long maxFileSize) {
+		this.maxFileSize = maxFileSize;
+		return this;
+	}
+	
+	/**
+	 * Sets how many log files are kept before the oldest are deleted, and returns itself for chaining.
+	 *
+	 * @param maxFiles amount of files, 0 or less to keep all
+	 * @return this object, for chaining
+	 */
+	public @NotNull AuditLog setMaxFiles(int maxFiles) {
+		this.maxFiles = maxFiles;
+		return this;
+	}
+	
+	/**
+	 * Sets how long the writer waits for new events when the buffer is empty, and returns itself for chaining.
+	 *
+	 * @param flushInterval time in milliseconds
+	 * @return this object, for chaining
+	 */
+	public @NotNull AuditLog setFlushInterval(long flushInterval) {
+		this.flushInterval = flushInterval;
+		return this;
+	}
+	
+	public @NotNull File getDirectory() {
+		return directory;
+	}
+	
+	/**
+	 * Returns the amount of events dropped because the buffer was full or the log was closed.
+	 *
+	 * @return dropped events
+	 */
+	public long getDropped() {
+		return dropped.get();
+	}
+	
+	/**
+	 * Records a dispatched command, never blocks.
+	 *
+	 * @param event event to be recorded
+	 * @return true if the event was queued, false if it was dropped
+	 */
+	public boolean record(@NotNull AuditEvent event) {
+		recording.incrementAndGet();
+		try {
+			if (running && buffer.offer(event)) {
+				return true;
+			}
+		} finally {
+			recording.decrementAndGet();
+		}
+		dropped.incrementAndGet();
+		return false;
+	}
+	
+	public boolean record(@NotNull CommandSender sender, @NotNull String label, @NotNull String[] arguments, boolean accepted) {
+		return this.record(new AuditEvent(sender, label, arguments, accepted));
+	}
+	
+	protected void run() {
+		while (running) {
+			if (!this.writeBatch()) {
+				LockSupport.parkNanos(this, flushInterval * 1_000_000L);
+			}
+		}
+		while (recording.get() > 0) {
+			// Events that passed the check right before closing are still being queued.
+			Thread.yield();
+		}
+		while (this.writeBatch()) {
+			// Writes what was left in the buffer when closed.
+		}
+		this.closeChannel();
+	}
+	
+	/**
+	 * Writes the next batch of events, returns true if there was something to write.
+	 */
+	protected boolean writeBatch() {
+		batch.clear();
+		if (buffer.drainTo(batch, batchSize) == 0) {
+			return false;
+		}
+		
+		try {
+			for (AuditEvent event : batch) {
+				if (channel == null || channelSize >= maxFileSize) {
+					this.flush();
+					this.rotate(event.time);
+				}
+				this.encode(event);
+			}
+			this.flush();
+		} catch (IOException e) {
+			output.clear();
+			this.closeChannel();
+			logger.log(Level.WARNING, "Could not write " + batch.size() + " audit events to " + directory, e);
+		}
+		return true;
+	}
+	
+	protected void encode(@NotNull AuditEvent event) throws IOException {
+		byte[] sender = event.sender.getBytes(StandardCharsets.UTF_8);
+		byte[] label = event.label.getBytes(StandardCharsets.UTF_8);
+		byte[] arguments = String.join(" ", event.arguments).getBytes(StandardCharsets.UTF_8);
+		
+		int length = 8 + 1 + (event.senderId != null ? 16 : 0) + 4 + sender.length + 4 + label.length + 4 + arguments.length;
+		ByteBuffer target = output;
+		if (output.remaining() < 4 + length) {
+			this.flush();
+			if (output.remaining() < 4 + length) {
+				target = ByteBuffer.allocate(4 + length);
+			}
+		}
+		
+		target.putInt(length);
+		target.putLong(event.time);
+		target.put((byte) ((event.accepted ? FLAG_ACCEPTED : 0) | (event.senderId != null ? FLAG_SENDER_ID : 0)));
+		if (event.senderId != null) {
+			target.putLong(event.senderId.getMostSignificantBits());
+			target.putLong(event.senderId.getLeastSignificantBits());
+		}
+		target.putInt(sender.length).put(sender);
+		target.putInt(label.length).put(label);
+		target.putInt(arguments.length).put(arguments);
+		
+		if (target != output) {
+			target.flip();
+			this.write(target);
+		}
+	}
+	
+	protected void flush() throws IOException {
+		if (output.position() > 0) {
+			output.flip();
+			this.write(output);
+			output.clear();
+		}
+	}
+	
+	protected void write(@NotNull ByteBuffer source) throws IOException {
+		while (source.hasRemaining()) {
+			channelSize += channel.write(source);
+		}
+	}
+	
+	/**
+	 * Starts a new log file and deletes the oldest files over the limit.
+	 */
+	protected void rotate(long time) throws IOException {
+		this.closeChannel();
+		if (!directory.isDirectory() && !directory.mkdirs()) {
+			throw new IOException("Could not create the directory " + directory);
+		}
+		
+		File file = new File(directory, FILE_PREFIX + time + FILE_SUFFIX);
+		channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+		channelSize = channel.size();
+		
+		if (maxFiles > 0) {
+			File[] files = listLogFiles(directory);
+			for (int i = 0; i < files.length - maxFiles; i++) {
+				if (!files[i].delete()) {
+					logger.warning("Could not delete the old audit log " + files[i]);
+				}
+			}
+		}
+	}
+	
+	protected void closeChannel() {
+		if (channel != null) {
+			try {
+				channel.close();
+			} catch (IOException e) {
+				logger.log(Level.WARNING, "Could not close the audit log", e);
+			}
+			channel = null;
+		}
+	}
+	
+	/**
+	 * Stops accepting events, writes the remaining ones and closes the current file.
+	 */
+	@Override
+	public void close() {
+		if (running) {
+			running = false;
+			LockSupport.unpark(writer);
+			try {
+				writer.join();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+	
+	/**
+	 * Returns the log files inside a directory, sorted from oldest to newest.
+	 *
+	 * @param directory folder to be searched
+	 * @return sorted log files
+	 */
+	public static @NotNull File[] listLogFiles(@NotNull File directory) {
+		File[] files = directory.listFiles((dir, name) -> name.startsWith(FILE_PREFIX) && name.endsWith(FILE_SUFFIX) && getStartTime(name) >= 0);
+		if (files == null) {
+			return new File[0];
+		}
+		Arrays.sort(files, (a, b) -> Long.compare(getStartTime(a.getName()), getStartTime(b.getName())));
+		return files;
+	}
+	
+	/**
+	 * Returns the time of the first event of a log file, given its name.
+	 *
+	 * @param name name of the file
+	 * @return time in milliseconds, otherwise -1 if not a log file name
+	 */
+	public static long getStartTime(@NotNull String name) {
+		try {
+			return Long.parseLong(name.substring(FILE_PREFIX.length(), name.length() - FILE_SUFFIX.length()));
+		} catch (Exception e) {
+			return -1;
+		}
+	}
+}
@@ -0,0 +1,109 @@
+package com.drafakiller.commandmanager.audit;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Reads the files written by an {@link AuditLog}, to query the events of a sender in a time range.
+ * <p>
+ * Files are skipped by their start time, and the ones in range are memory-mapped and scanned.
+ * A record cut short by a crash ends the file instead of failing the query.
+ */
+public class AuditLogReader {
+	
+	protected final File directory;
+	
+	public AuditLogReader(@NotNull File directory) {
+		this.directory = directory;
+	}
+	
+	public AuditLogReader(@NotNull AuditLog log) {
+		this(log.getDirectory());
+	}
+	
+	/**
+	 * Returns all events of a sender between two times, oldest first.
+	 *
+	 * @param sender name or unique id of the sender, null for every sender
+	 * @param from start of the range, in milliseconds, inclusive
+	 * @param to end of the range, in milliseconds, inclusive
+	 * @return events found
+	 * @throws IOException if a log file could not be read
+	 */
+	public @NotNull List<AuditEvent> query(@Nullable String sender, long from, long to) throws IOException {
+		List<AuditEvent> events = new ArrayList<>();
+		File[] files = AuditLog.listLogFiles(directory);
+		
+		for (int i = 0; i < files.length; i++) {
+			if (AuditLog.getStartTime(files[i].getName()) > to) {
+				break;
+			}
+			if (i + 1 < files.length && AuditLog.getStartTime(files[i + 1].getName()) < from) {
+				continue;
+			}
+			this.read(files[i], sender, from, to, events);
+		}
+		
+		return events;
+	}
+	
+	/**
+	 * Returns all events of a sender, oldest first.
+	 *
+	 * @param sender name or unique id of the sender
+	 * @return events found
+	 * @throws IOException if a log file could not be read
+	 */
+	public @NotNull List<AuditEvent> query(@NotNull String sender) throws IOException {
+		return this.query(sender, Long.MIN_VALUE, Long.MAX_VALUE);
+	}
+	
+	protected void read(@NotNull File file, @Nullable String sender, long from, long to, @NotNull List<AuditEvent> events) throws IOException {
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			MappedByteBuffer data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			
+			while (data.remaining() >= 4) {
+				int length = data.getInt();
+				if (length <= 0 || length > data.remaining()) {
+					break;
+				}
+				int next = data.position() + length;
+				
+				long time = data.getLong();
+				if (time < from || time > to) {
+					data.position(next);
+					continue;
+				}
+				
+				byte flags = data.get();
+				UUID senderId = (flags & AuditLog.FLAG_SENDER_ID) != 0 ? new UUID(data.getLong(), data.getLong()) : null;
+				String senderName = readString(data);
+				if (sender != null && !sender.equalsIgnoreCase(senderName) && !(senderId != null && sender.equalsIgnoreCase(senderId.toString()))) {
+					data.position(next);
+					continue;
+				}
+				
+				String label = readString(data);
+				String arguments = readString(data);
+				events.add(new AuditEvent(time, senderName, senderId, label, arguments.isEmpty() ? new String[0] : arguments.split(" ", -1), (flags & AuditLog.FLAG_ACCEPTED) != 0));
+				data.position(next);
+			}
+		}
+	}
+	
+	protected static @NotNull String readString(@NotNull MappedByteBuffer data) {
+		byte[] bytes = new byte[data.getInt()];
+		data.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+}
@@ -0,0 +1,108 @@
+package com.drafakiller.commandmanager.audit;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded lock-free queue of {@link AuditEvent}s, with many producers and a single consumer.
+ * <p>
+ * Each slot carries a sequence number telling whether it is free to be written or ready to be read, so producers only race on a single counter and never block.
+ * When the buffer is full the event is rejected instead of waiting, the command thread must never stall because of the audit.
+ */
+public class AuditRingBuffer {
+	
+	protected final int mask;
+	protected final AtomicReferenceArray<AuditEvent> slots;
+	protected final AtomicLongArray sequences;
+	protected final AtomicLong tail = new AtomicLong();
+	protected long head = 0;
+	
+	/**
+	 * @param capacity max events waiting to be written, rounded up to a power of two
+	 */
+	public AuditRingBuffer(int capacity) {
+		if (capacity < 2) {
+			capacity = 2;
+		}
+		int size = Integer.highestOneBit(capacity - 1) << 1;
+		this.mask = size - 1;
+		this.slots = new AtomicReferenceArray<>(size);
+		this.sequences = new AtomicLongArray(size);
+		for (int i = 0; i < size; i++) {
+			sequences.set(i, i);
+		}
+	}
+	
+	public int capacity() {
+		return mask + 1;
+	}
+	
+	/**
+	 * Adds an event to the buffer, safe to call from any thread.
+	 *
+	 * @param event event to be added
+	 * @return true if added, false if the buffer was full
+	 */
+	public boolean offer(@NotNull AuditEvent event) {
+		long position = tail.get();
+		while (true) {
+			int index = (int) (position & mask);
+			long difference = sequences.get(index) - position;
+			if (difference == 0) {
+				if (tail.compareAndSet(position, position + 1)) {
+					slots.lazySet(index, event);
+					sequences.lazySet(index, position + 1);
+					return true;
+				}
+				position = tail.get();
+			} else if (difference < 0) {
+				return false;
+			} else {
+				position = tail.get();
+			}
+		}
+	}
+	
+	/**
+	 * Removes the next event from the buffer. Must only be called by the consumer thread.
+	 *
+	 * @return the next event, otherwise null if none is ready
+	 */
+	public @Nullable AuditEvent poll() {
+		int index = (int) (head & mask);
+		if (sequences.get(index) != head + 1) {
+			return null;
+		}
+		AuditEvent event = slots.get(index);
+		slots.lazySet(index, null);
+		sequences.lazySet(index, head + mask + 1);
+		head++;
+		return event;
+	}
+	
+	/**
+	 * Moves up to {@code limit} ready events into the list. Must only be called by the consumer thread.
+	 *
+	 * @param events list to add the events to
+	 * @param limit max events to move
+	 * @return amount of events moved
+	 */
+	public int drainTo(@NotNull List<AuditEvent> events, int limit) {
+		int count = 0;
+		AuditEvent event;
+		while (count < limit && (event = this.poll()) != null) {
+			events.add(event);
+			count++;
+		}
+		return count;
+	}
+	
+	public boolean isEmpty() {
+		return sequences.get((int) (head & mask)) != head + 1;
+	}
+}
@@ -0,0 +1,169 @@
+package com.drafakiller.commandmanager.cache;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Cache of values that expire after a time, holding at most a max amount of values and evicting the least recently used.
+ * <p>
+ * A value older than its time to live can still be served while it's stale, for a while longer, so it can be refreshed in the background instead of making someone wait.
+ * {@link #shouldRefresh(Entry)} tells which single caller should start that refresh.
+ * <p>
+ * A removal listener can release what a value holds once it leaves the cache, whether it's replaced, removed, expired or evicted.
+ * <p>
+ * Safe to use from any thread.
+ */
+public class ExpiringCache<K, V> {
+	
+	public static final class Entry<V> {
+		public final V value;
+		public final long created;
+		protected final AtomicBoolean refreshing = new AtomicBoolean();
+		
+		protected Entry(V value, long created) {
+			this.value = value;
+			this.created = created;
+		}
+	}
+	
+	protected final LinkedHashMap<K, Entry<V>> entries;
+	protected final int maxSize;
+	protected long timeToLive;
+	protected long staleTime;
+	protected @Nullable Consumer<? super V> removalListener;
+	
+	/**
+	 * @param timeToLive time in milliseconds a value is fresh
+	 * @param maxSize max amount of values
+	 */
+	public ExpiringCache(long timeToLive, int maxSize) {
+		this.timeToLive = timeToLive * 1_000_000L;
+		this.maxSize = maxSize;
+		this.entries = new LinkedHashMap<K, Entry<V>>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+				if (size() > ExpiringCache.this.maxSize) {
+					ExpiringCache.this.removed(eldest.getValue());
+					return true;
+				}
+				return false;
+			}
+		};
+	}
+	
+	/**
+	 * Sets how long after its time to live a value can still be served while it's refreshed, and returns itself for chaining.
+	 *
+	 * @param staleTime time in milliseconds, 0 to never serve stale values
+	 * @return this object, for chaining
+	 */
+	public @NotNull ExpiringCache<K, V> setStaleTime(long staleTime) {
+		this.staleTime = staleTime * 1_000_000L;
+		return this;
+	}
+	
+	/**
+	 * Sets what is called with each value that leaves the cache, and returns itself for chaining.
+	 * It's called while the cache is locked, so it must not use the cache.
+	 *
+	 * @param removalListener listener of the removed values, or null for none
+	 * @return this object, for chaining
+	 */
+	public @NotNull ExpiringCache<K, V> setRemovalListener(@Nullable Consumer<? super V> removalListener) {
+		this.removalListener = removalListener;
+		return this;
+	}
+	
+	/**
+	 * Returns the entry of a key, while it's fresh or stale. Expired entries are removed.
+	 *
+	 * @param key key of the value
+	 * @return the entry, otherwise null
+	 */
+	public synchronized @Nullable Entry<V> get(@NotNull K key) {
+		Entry<V> entry = entries.get(key);
+		if (entry != null && this.isExpired(entry)) {
+			entries.remove(key);
+			this.removed(entry);
+			return null;
+		}
+		return entry;
+	}
+	
+	/**
+	 * Puts a value, replacing the one of the key. Putting the same value again only makes it new.
+	 *
+	 * @param key key of the value
+	 * @param value the value
+	 */
+	public synchronized void put(@NotNull K key, V value) {
+		Entry<V> previous = entries.put(key, new Entry<>(value, System.nanoTime()));
+		if (previous != null && previous.value != value) {
+			this.removed(previous);
+		}
+	}
+	
+	public synchronized void remove(@NotNull K key) {
+		Entry<V> entry = entries.remove(key);
+		if (entry != null) {
+			this.removed(entry);
+		}
+	}
+	
+	/**
+	 * Removes the expired entries, which otherwise stay until they are read or evicted.
+	 */
+	public synchronized void purge() {
+		Iterator<Entry<V>> iterator = entries.values().iterator();
+		while (iterator.hasNext()) {
+			Entry<V> entry = iterator.next();
+			if (this.isExpired(entry)) {
+				iterator.remove();
+				this.removed(entry);
+			}
+		}
+	}
+	
+	public synchronized void clear() {
+		if (removalListener != null) {
+			for (Entry<V> entry : entries.values()) {
+				this.removed(entry);
+			}
+		}
+		entries.clear();
+	}
+	
+	public synchronized int size() {
+		return entries.size();
+	}
+	
+	protected boolean isExpired(@NotNull Entry<V> entry) {
+		return System.nanoTime() - entry.created > timeToLive + staleTime;
+	}
+	
+	protected void removed(@NotNull Entry<V> entry) {
+		if (removalListener != null) {
+			removalListener.accept(entry.value);
+		}
+	}
+	
+	public boolean isFresh(@NotNull Entry<V> entry) {
+		return System.nanoTime() - entry.created <= timeToLive;
+	}
+	
+	/**
+	 * Checks if an entry is stale and nobody started refreshing it yet. Only the first caller gets true.
+	 *
+	 * @param entry entry to be checked
+	 * @return true if the caller should refresh the value, otherwise false
+	 */
+	public boolean shouldRefresh(@NotNull Entry<V> entry) {
+		return !this.isFresh(entry) && entry.refreshing.compareAndSet(false, true);
+	}
+}
@@ -0,0 +1,89 @@
+package com.drafakiller.commandmanager.cache;
+
+import com.drafakiller.commandmanager.CommandManager;
+import com.drafakiller.commandmanager.SubCommandResult;
+import com.drafakiller.commandmanager.selector.PlayerSelector;
+import net.kyori.adventure.text.Component;
+import org.bukkit.command.CommandSender;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Locale;
+import java.util.function.Function;
+
+/**
+ * Output cache of a read-only {@link com.drafakiller.commandmanager.SubCommand}, like top lists or server stats, where everyone running it with the same arguments sees the same.
+ * <p>
+ * Outputs are kept by the arguments, ignoring case and with aliases of sub commands read as their names, by the locale of the sender, and by the permission tier of the sender when set,
+ * so senders who see more don't share their output with the others. Commands with selectors, like {@code @s}, aren't cached, as their output depends on who ran them.
+ * While an output is cached the manager sends it without calling the sub command. Once it's older than the time to live it can still be sent while stale,
+ * for the stale time, and the sub command is called again on a later tick to refresh it.
+ */
+public class OutputCache {
+	
+	public final ExpiringCache<String, Component> outputs;
+	protected @Nullable Function<CommandSender, String> permissionTier;
+	
+	/**
+	 * @param timeToLive time in milliseconds an output is fresh
+	 * @param maxSize max amount of outputs kept
+	 */
+	public OutputCache(long timeToLive, int maxSize) {
+		this.outputs = new ExpiringCache<>(timeToLive, maxSize);
+	}
+	
+	public OutputCache(long timeToLive) {
+		this(timeToLive, 256);
+	}
+	
+	/**
+	 * Sets how long after its time to live an output can still be sent while it's refreshed, and returns itself for chaining.
+	 *
+	 * @param staleTime time in milliseconds
+	 * @return this object, for chaining
+	 */
+	public @NotNull OutputCache setStaleWhileRevalidate(long staleTime) {
+		this.outputs.setStaleTime(staleTime);
+		return this;
+	}
+	
+	/**
+	 * Sets how to tell apart senders who must see a different output, for example {@code sender -> sender.hasPermission("shop.admin") ? "admin" : ""}, and returns itself for chaining.
+	 *
+	 * @param permissionTier tier of a sender, or null if everyone sees the same
+	 * @return this object, for chaining
+	 */
+	public @NotNull OutputCache setPermissionTier(@Nullable Function<CommandSender, String> permissionTier) {
+		this.permissionTier = permissionTier;
+		return this;
+	}
+	
+	/**
+	 * Returns the key of the output for a sender and the arguments of the query, or null if the output can't be cached.
+	 *
+	 * @param manager manager of the sub command
+	 * @param sender sender of the command
+	 * @param result result of the query
+	 * @return the key, or null if an argument is a selector
+	 */
+	public @Nullable String getKey(@NotNull CommandManager manager, @NotNull CommandSender sender, @NotNull SubCommandResult result) {
+		StringBuilder key = new StringBuilder(manager.messages.getLocale(sender));
+		if (this.permissionTier != null) {
+			key.append('\0').append(this.permissionTier.apply(sender));
+		}
+		for (String argument : manager.getCanonicalArguments(result)) {
+			if (PlayerSelector.isSelector(argument)) {
+				return null;
+			}
+			key.append('\0').append(argument.trim().toLowerCase(Locale.ROOT));
+		}
+		return key.toString();
+	}
+	
+	/**
+	 * Removes every output, for when the data shown changed.
+	 */
+	public void invalidate() {
+		this.outputs.clear();
+	}
+}
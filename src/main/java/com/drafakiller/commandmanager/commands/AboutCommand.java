@@ -2,16 +2,13 @@ package com.drafakiller.commandmanager.commands;
 
 import com.drafakiller.commandmanager.SubCommand;
 import com.drafakiller.commandmanager.SubCommandResult;
-import net.kyori.adventure.text.Component;
-import net.kyori.adventure.text.TextComponent;
+import com.drafakiller.commandmanager.message.OutputRenderer;
 import net.kyori.adventure.text.event.ClickEvent;
-import net.kyori.adventure.text.event.HoverEvent;
 import net.kyori.adventure.text.format.NamedTextColor;
 import net.kyori.adventure.text.format.TextColor;
 import net.kyori.adventure.text.format.TextDecoration;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandSender;
-import org.bukkit.entity.Player;
 import org.bukkit.plugin.PluginDescriptionFile;
 import org.jetbrains.annotations.NotNull;
 
@@ -40,95 +37,68 @@ public class AboutCommand extends SubCommand {
 	
 	@Override
 	public Boolean onCommand(@NotNull CommandSender sender, @NotNull Command command, @NotNull String label, SubCommandResult result) {
-		if (sender instanceof Player) {
-			Player player = (Player) sender;
-			PluginDescriptionFile pluginInfo = this.getPlugin().getDescription();
-			
-			TextComponent.Builder message = Component.text()
-				.append(
-					Component.text()
-						.append(Component.newline())
-						.append(Component.text("["))
-						.append(Component.text(this.getPlugin().getName(), null, TextDecoration.BOLD))
-						.append(Component.space())
-						.append(Component.text("- About]"))
-						.color(this.defaultColor)
-				).append(Component.newline());
-			
+		PluginDescriptionFile pluginInfo = this.getPlugin().getDescription();
+		OutputRenderer message = this.manager.renderer(sender);
+		
+		message
+			.newline()
+			.message(this.defaultColor, "about.title", this.getPlugin().getName())
+			.newline();
+		
+		message
+			.message("about.plugin")
+			.text(pluginInfo.getName(), this.defaultColor, TextDecoration.ITALIC)
+			.newline();
+		
+		if (pluginInfo.getVersion().length() > 0) {
 			message
-				.append(Component.text(" Plugin: "))
-				.append(Component.text(pluginInfo.getName(), this.defaultColor, TextDecoration.ITALIC))
-				.append(Component.newline());
-			
-			if (pluginInfo.getVersion().length() > 0) {
-				message
-					.append(Component.text(" Version: "))
-					.append(Component.text(pluginInfo.getVersion()))
-					.append(Component.newline())
-					.append(Component.newline());
-			}
-			
-			String description = pluginInfo.getDescription();
-			if (description != null && description.length() > 0) {
-				message
-					.append(Component.text(" Description: "))
-					.append(Component.text(description, NamedTextColor.GRAY))
-					.append(Component.newline())
-					.append(Component.newline());
-			}
-			
-			List<String> authors = pluginInfo.getAuthors();
-			if (!authors.isEmpty()) {
-				message.append(Component.text(authors.size() > 1 ? " Authors:" : " Author:"));
-				boolean first = true;
-				for (String author : authors) {
-					if (first) {
-						first = false;
-					} else {
-						message.append(Component.text(","));
-					}
-					message.append(Component.text(" " + author, NamedTextColor.DARK_AQUA));
-				}
-				message.append(Component.newline());
-			}
-			
-			List<String> contributors = pluginInfo.getContributors();
-			if (!contributors.isEmpty()) {
-				message.append(Component.text(contributors.size() > 1 ? " Contributors:" : " Contributor:"));
-				boolean first = true;
-				for (String author : contributors) {
-					if (first) {
-						first = false;
-					} else {
-						message.append(Component.text(","));
-					}
-					message.append(Component.text(" " + author, NamedTextColor.DARK_AQUA));
-				}
-				message.append(Component.newline());
-			}
-			
-			String website = pluginInfo.getWebsite();
-			if (website != null && website.length() > 0) {
-				if (!website.toLowerCase().matches("^https?://")) {
-					website = "http://" + website;
-				}
-				message
-					.append(Component.text(" Website: "))
-					.append(
-						Component.text(website, this.defaultColor, TextDecoration.ITALIC)
-							.hoverEvent(HoverEvent.showText(
-								Component.text()
-									.append(Component.text("Click here to open the url "))
-									.append(Component.text(website, this.defaultColor, TextDecoration.ITALIC))
-							))
-							.clickEvent(ClickEvent.openUrl(website))
-					)
-					.append(Component.newline());
+				.message("about.version", pluginInfo.getVersion())
+				.newline()
+				.newline();
+		}
+		
+		String description = pluginInfo.getDescription();
+		if (description != null && description.length() > 0) {
+			message
+				.message("about.description", description)
+				.newline()
+				.newline();
+		}
+		
+		List<String> authors = pluginInfo.getAuthors();
+		if (!authors.isEmpty()) {
+			this.appendNames(message, authors.size() > 1 ? "about.authors" : "about.author", authors);
+		}
+		
+		List<String> contributors = pluginInfo.getContributors();
+		if (!contributors.isEmpty()) {
+			this.appendNames(message, contributors.size() > 1 ? "about.contributors" : "about.contributor", contributors);
+		}
+		
+		String website = pluginInfo.getWebsite();
+		if (website != null && website.length() > 0) {
+			if (!website.toLowerCase().matches("^https?://.*")) {
+				website = "http://" + website;
 			}
-			
-			player.sendMessage(message);
+			message
+				.message("about.website")
+				.text(website, this.defaultColor, TextDecoration.ITALIC)
+				.click(ClickEvent.openUrl(website), "about.website.hover", message.styled(website, this.defaultColor, TextDecoration.ITALIC))
+				.newline();
 		}
 		
+		message.send();
 		return true;
 	}
+	
+	/**
+	 * Adds a line with a message followed by a list of names, separated by commas.
+	 */
+	protected void appendNames(OutputRenderer message, String key, List<String> names) {
+		message.message(key);
+		for (int i = 0; i < names.size(); i++) {
+			message.text((i > 0 ? ", " : " ") + names.get(i), NamedTextColor.DARK_AQUA);
+		}
+		message.newline();
+	}
 }
@@ -3,34 +3,33 @@ package com.drafakiller.commandmanager.commands;
 import com.drafakiller.commandmanager.CommandManager;
 import com.drafakiller.commandmanager.SubCommand;
 import com.drafakiller.commandmanager.SubCommandResult;
-import net.kyori.adventure.text.Component;
-import net.kyori.adventure.text.ComponentBuilder;
-import net.kyori.adventure.text.TextComponent;
+import com.drafakiller.commandmanager.jfr.CommandEvents;
+import com.drafakiller.commandmanager.message.OutputRenderer;
 import net.kyori.adventure.text.event.ClickEvent;
-import net.kyori.adventure.text.event.HoverEvent;
 import net.kyori.adventure.text.format.NamedTextColor;
 import net.kyori.adventure.text.format.TextColor;
 import net.kyori.adventure.text.format.TextDecoration;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandSender;
-import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 public class HelpCommand extends SubCommand {
 	
 	protected final int defaultPage = 1;
 	protected final int pageLimit = 5;
+	protected final int searchLimit = 10;
 	protected TextColor defaultColor;
 	
 	protected void setup() {
 		this.name = "help";
 		this.aliases = new String[] { "?" };
 		this.info = "Shows all info about the plugin.";
-		this.usage = new String[][] { { "%page%", "%command%" } };
+		this.usage = new String[][] { { "%page%", "%command%", "%search%" }, { "%search%" }, { "%search%" } };
 		this.defaultColor = NamedTextColor.DARK_AQUA;
 	}
 	
@@ -45,32 +44,28 @@ public class HelpCommand extends SubCommand {
 		}
 	}
 	
-	protected boolean showHelp(Player player, int page, int limit) {
+	protected boolean showHelp(CommandSender sender, int page, int limit) {
 		if (this.manager.command != null) {
+			Object event = CommandEvents.beginHelpRender();
 			String commandName = this.manager.command.getName();
-			ArrayList<SubCommand> permittedSubCommands = this.manager.getPermittedSubCommands(player);
+			ArrayList<SubCommand> permittedSubCommands = this.manager.getPermittedSubCommands(sender);
+			OutputRenderer message = this.manager.renderer(sender);
 			
-			TextComponent.Builder message = Component.text()
-				.append(
-					Component.text()
-						.append(Component.newline())
-						.append(Component.text("["))
-						.append(Component.text(this.getPlugin().getName(), null, TextDecoration.BOLD))
-						.append(Component.space())
-						.append(Component.text("- Help]"))
-						.color(this.defaultColor)
-				).append(Component.newline());
+			message
+				.newline()
+				.message(this.defaultColor, "help.title", this.getPlugin().getName())
+				.newline();
 			
-			if (this.manager.command != null && this.manager.command.getDescription().length() > 0) {
+			if (this.manager.command.getDescription().length() > 0) {
 				message
-					.append(Component.text(this.manager.command.getDescription()))
-					.append(Component.newline())
-					.append(Component.newline());
+					.text(this.manager.command.getDescription())
+					.newline()
+					.newline();
 			}
 			
 			message
-				.append(Component.text("All available commands:"))
-				.append(Component.newline());
+				.message("help.list")
+				.newline();
 			
 			if (permittedSubCommands.size() > 0) {
 				int maxPage = (int) Math.ceil((double) permittedSubCommands.size() / limit);
@@ -84,213 +79,208 @@ public class HelpCommand extends SubCommand {
 				for (int i = limit * (page - 1); i < permittedSubCommands.size() && i < limit * page; i++) {
 					SubCommand subcommand = permittedSubCommands.get(i);
 					if (subcommand.name.length() > 0) {
-						if (subcommand.info != null && subcommand.info.length() > 0) {
-							String title = " /" + commandName + " " + subcommand.name + ":";
-							message.append(
-								Component.text(title, this.defaultColor)
-									.hoverEvent(HoverEvent.showText(
-										Component.text()
-											.append(Component.text("Click here to see more information about "))
-											.append(Component.text("/" + commandName + " " + subcommand.name, this.defaultColor, TextDecoration.ITALIC))
-									))
-									.clickEvent(ClickEvent.runCommand("/" + commandName + " help " + subcommand.name))
-							)
-								.append(Component.space())
-								.append(Component.text(CommandManager.textLimit(subcommand.info, 60 - title.length()), NamedTextColor.GRAY, TextDecoration.ITALIC));
-						} else {
-							String title = " /" + commandName + " " + subcommand.name;
-							message.append(
-								Component.text(title, this.defaultColor)
-									.hoverEvent(HoverEvent.showText(
-										Component.text()
-											.append(Component.text("Click here to see more information about "))
-											.append(Component.text("/" + commandName + " " + subcommand.name, this.defaultColor, TextDecoration.ITALIC))
-									))
-									.clickEvent(ClickEvent.runCommand("/" + commandName + " help " + subcommand.name))
-							);
-						}
+						this.appendEntry(message, commandName, subcommand);
 						if (i + 1 < permittedSubCommands.size() && i + 1 < limit * page) {
-							message.append(Component.newline());
+							message.newline();
 						}
 					}
 				}
 				
 				if (page > 1 || page < maxPage) {
 					message
-						.append(Component.newline())
-						.append(Component.newline())
-						.append(Component.text(" Page " + page + " of " + maxPage + " - ", this.defaultColor));
+						.newline()
+						.newline()
+						.message(this.defaultColor, "help.page", page, maxPage);
 				}
 				
 				if (page > 1) {
-					message.append(
-						Component.text("Previous", this.defaultColor, TextDecoration.BOLD)
-							.hoverEvent(HoverEvent.showText(
-								Component.text()
-									.append(Component.text("Click here to "))
-									.append(Component.text("/" + commandName + " help " + (page - 1), this.defaultColor, TextDecoration.BOLD))
-							))
-							.clickEvent(ClickEvent.runCommand("/" + commandName + " help " + (page - 1)))
-					);
+					this.appendPageButton(message, "help.page.previous", "/" + commandName + " help " + (page - 1));
 				}
 				
 				if (page > 1 && page < maxPage) {
-					message.append(Component.text(" / ", this.defaultColor));
+					message.text(" / ", this.defaultColor);
 				}
 				
 				if (page < maxPage) {
-					message.append(
-						Component.text("Next", this.defaultColor, TextDecoration.BOLD)
-							.hoverEvent(HoverEvent.showText(
-								Component.text()
-									.append(Component.text("Click here to "))
-									.append(Component.text("/" + commandName + " help " + (page + 1), this.defaultColor, TextDecoration.BOLD))
-							))
-							.clickEvent(ClickEvent.runCommand("/" + commandName + " help " + (page + 1)))
-					);
+					this.appendPageButton(message, "help.page.next", "/" + commandName + " help " + (page + 1));
 				}
 				
 				if (page > 1 || page < maxPage) {
-					message.append(Component.text(" page", this.defaultColor));
+					message.message(this.defaultColor, "help.page.suffix");
 				}
 			} else {
-				message.append(Component.text("  - No commands to show...", null, TextDecoration.ITALIC));
+				message.message("help.empty");
 			}
 			
-			message.append(Component.newline());
+			message.newline();
 			
-			player.sendMessage(message);
+			CommandEvents.commitHelpRender(event, null, page, Math.max(0, Math.min(limit, permittedSubCommands.size() - limit * (page - 1))));
+			message.send();
 			return true;
 		}
 		return false;
 	}
 	
-	protected boolean showHelp(Player player, String command) {
+	/**
+	 * Adds a button to another page of the list, running its command.
+	 */
+	protected void appendPageButton(OutputRenderer message, String key, String pageCommand) {
+		message
+			.message(this.defaultColor, key)
+			.click(ClickEvent.runCommand(pageCommand), "help.page.hover", message.styled(pageCommand, this.defaultColor, TextDecoration.BOLD))
+			.plainOnly(" (" + pageCommand + ")");
+	}
+	
+	/**
+	 * Adds a sub command's line of the list, with its name and info, to the message.
+	 */
+	protected void appendEntry(OutputRenderer message, String commandName, SubCommand subcommand) {
+		boolean hasInfo = subcommand.info != null && subcommand.info.length() > 0;
+		String title = " /" + commandName + " " + subcommand.name + (hasInfo ? ":" : "");
+		message
+			.text(title, this.defaultColor)
+			.click(
+				ClickEvent.runCommand("/" + commandName + " help " + subcommand.name),
+				"help.entry.hover", message.styled("/" + commandName + " " + subcommand.name, this.defaultColor, TextDecoration.ITALIC)
+			);
+		if (hasInfo) {
+			message
+				.text(" ")
+				.text(CommandManager.textLimit(subcommand.info, 60 - title.length()), NamedTextColor.GRAY, TextDecoration.ITALIC);
+		}
+	}
+	
+	/**
+	 * Shows the sub commands found by the words searched, from the manager's {@link com.drafakiller.commandmanager.help.HelpIndex}, best first.
+	 */
+	protected boolean showSearch(CommandSender sender, String[] terms) {
+		if (this.manager.command != null) {
+			Object event = CommandEvents.beginHelpRender();
+			String commandName = this.manager.command.getName();
+			List<SubCommand> found = this.manager.helpIndex.search(sender, terms, searchLimit);
+			OutputRenderer message = this.manager.renderer(sender);
+			
+			message
+				.newline()
+				.message(this.defaultColor, "help.title", this.getPlugin().getName())
+				.newline()
+				.message("help.search", message.styled(String.join(" ", terms), this.defaultColor, TextDecoration.ITALIC))
+				.newline();
+			
+			if (found.size() > 0) {
+				for (int i = 0; i < found.size(); i++) {
+					this.appendEntry(message, commandName, found.get(i));
+					if (i + 1 < found.size()) {
+						message.newline();
+					}
+				}
+			} else {
+				message.message("help.search.empty");
+			}
+			
+			message.newline();
+			
+			CommandEvents.commitHelpRender(event, null, 0, found.size());
+			message.send();
+			return true;
+		}
+		return false;
+	}
+	
+	protected boolean showHelp(CommandSender sender, String command) {
 		SubCommand subcommand = this.manager.getSubCommand(command);
-		if (subcommand != null && subcommand.senderHasPermission(player)) {
+		if (subcommand != null && subcommand.senderHasPermission(sender)) {
 			if (this.manager.command != null) {
+				Object event = CommandEvents.beginHelpRender();
 				String commandName = this.manager.command.getName();
-				TextComponent.Builder message = Component.text()
-					.append(
-						Component.text()
-							.append(Component.newline())
-							.append(Component.text("["))
-							.append(Component.text(this.getPlugin().getName(), null, TextDecoration.BOLD))
-							.append(Component.space())
-							.append(Component.text("- Command]"))
-							.color(this.defaultColor)
-							.hoverEvent(HoverEvent.showText(
-								Component.text()
-									.append(Component.text("Click here to check "))
-									.append(Component.text(this.getPlugin().getName(), this.defaultColor, TextDecoration.BOLD))
-									.append(Component.text("'s command list"))
-							))
-							.clickEvent(ClickEvent.runCommand("/" + commandName + " help"))
-					).append(Component.newline());
+				String pluginName = this.getPlugin().getName();
+				OutputRenderer message = this.manager.renderer(sender);
+				
+				message
+					.newline()
+					.message(this.defaultColor, "help.command.title", pluginName)
+					.click(ClickEvent.runCommand("/" + commandName + " help"), "help.command.title.hover", message.styled(pluginName, this.defaultColor, TextDecoration.BOLD))
+					.newline();
 				
 				if (subcommand.name != null && subcommand.name.length() > 0) {
-					message.append(Component.text(" Command: "))
-						.append(
-							Component.text(subcommand.name, this.defaultColor, TextDecoration.ITALIC)
-								.hoverEvent(HoverEvent.showText(
-									Component.text()
-										.append(Component.text("Click here to run the command "))
-										.append(Component.text("/" + commandName + " " + subcommand.name, this.defaultColor, TextDecoration.ITALIC))
-								))
-								.clickEvent(ClickEvent.runCommand("/" + commandName + " " + subcommand.name))
-						).append(Component.newline());
+					message
+						.message("help.command.name")
+						.text(subcommand.name, this.defaultColor, TextDecoration.ITALIC)
+						.click(
+							ClickEvent.runCommand("/" + commandName + " " + subcommand.name),
+							"help.command.name.hover", message.styled("/" + commandName + " " + subcommand.name, this.defaultColor, TextDecoration.ITALIC)
+						)
+						.newline();
 				}
 				
 				if (subcommand.aliases != null && subcommand.aliases.length > 0) {
-					message.append(Component.text(" Aliases:"));
-					boolean first = true;
-					for (String alias : subcommand.aliases) {
-						if (first) {
-							first = false;
-						} else {
-							message.append(Component.text(","));
-						}
-						
+					message.message("help.command.aliases");
+					for (int i = 0; i < subcommand.aliases.length; i++) {
 						message
-							.append(Component.space())
-							.append(Component.text(alias, this.defaultColor, TextDecoration.ITALIC));
+							.text(i > 0 ? ", " : " ")
+							.text(subcommand.aliases[i], this.defaultColor, TextDecoration.ITALIC);
 					}
-					message.append(Component.newline());
+					message.newline();
 				}
 				
 				if (subcommand.info != null && subcommand.info.length() > 0) {
 					message
-						.append(Component.text(" Description: "))
-						.append(Component.text(subcommand.info, NamedTextColor.GRAY, TextDecoration.ITALIC))
-						.append(Component.newline());
+						.message("help.command.description")
+						.text(subcommand.info, NamedTextColor.GRAY, TextDecoration.ITALIC)
+						.newline();
 				}
 				
 				if (subcommand.usage != null && subcommand.usage.length > 0) {
-					StringBuilder usageTemplate = new StringBuilder("/" + commandName + " " + subcommand.name);
-					
+					StringBuilder usageTemplate = new StringBuilder().append('/').append(commandName).append(' ').append(subcommand.name);
 					for (int i = 0; i < subcommand.usage.length; i++) {
-						usageTemplate.append(" <argument ").append(i + 1).append(">");
+						this.manager.messages.appendPlain(usageTemplate, sender, "help.command.usage-argument", i + 1);
 					}
 					
 					message
-						.append(Component.newline())
-						.append(Component.text(" Usage of "))
-						.append(
-							Component.text(usageTemplate.toString(), this.defaultColor, TextDecoration.ITALIC)
-								.clickEvent(ClickEvent.suggestCommand("/" + commandName + " " + subcommand.name + " "))
-						)
-						.append(Component.text(":"))
-						.append(Component.newline());
+						.newline()
+						.message("help.command.usage-of", message.styled(usageTemplate.toString(), this.defaultColor, TextDecoration.ITALIC))
+						.click(ClickEvent.suggestCommand("/" + commandName + " " + subcommand.name + " "), null)
+						.newline();
 					
-					if (subcommand.getPermittedSubCommands(player).size() > 0) {
-						message.append(Component.text("   Sub commands:", null, TextDecoration.BOLD));
+					ArrayList<SubCommand> permittedSubCommands = subcommand.getPermittedSubCommands(sender);
+					if (permittedSubCommands.size() > 0) {
+						message.message("help.command.subcommands");
 						boolean first = true;
-						for (SubCommand sub_subcommand : subcommand.getPermittedSubCommands(player)) {
+						for (SubCommand sub_subcommand : permittedSubCommands) {
 							if (sub_subcommand.name.length() > 0) {
-								if (first) {
-									first = false;
-								} else {
-									message.append(Component.text(","));
-								}
-								message.append(Component.space());
-								message.append(Component.text(sub_subcommand.name, this.defaultColor, TextDecoration.ITALIC));
+								message
+									.text(first ? " " : ", ")
+									.text(sub_subcommand.name, this.defaultColor, TextDecoration.ITALIC);
+								first = false;
 							}
 						}
-						message.append(Component.newline());
+						message.newline();
 					}
 					
 					for (int i = 0; i < subcommand.usage.length; i++) {
 						String[] usages = subcommand.usage[i];
-						message.append(Component.text("   Argument " + (i + 1) + ":", null, TextDecoration.BOLD));
-						boolean first = true;
-						for (String usage : usages) {
-							if (first) {
-								first = false;
+						message.message("help.command.argument", i + 1);
+						for (int j = 0; j < usages.length; j++) {
+							message.text(j > 0 ? " / " : " ");
+							if (CommandManager.isArgumentKeyword(usages[j])) {
+								message.text("<" + usages[j].replace("%", "") + ">", null, TextDecoration.ITALIC);
 							} else {
-								message.append(Component.text(" /"));
-							}
-							message.append(Component.space());
-							if (CommandManager.isArgumentKeyword(usage)) {
-								usage = "<" + usage.replace("%", "") + ">";
-								message.append(Component.text(usage, null, TextDecoration.ITALIC));
-							} else {
-								message.append(Component.text(usage));
+								message.text(usages[j]);
 							}
 						}
-						message.append(Component.newline());
+						message.newline();
 					}
 				} else {
 					message
-						.append(Component.newline())
-						.append(Component.text(" Usage: "))
-						.append(
-							Component.text("/" + commandName + " " + subcommand.name, this.defaultColor, TextDecoration.ITALIC)
-								.clickEvent(ClickEvent.suggestCommand("/" + commandName + " " + subcommand.name))
-						)
-						.append(Component.newline());
+						.newline()
+						.message("help.command.usage")
+						.text("/" + commandName + " " + subcommand.name, this.defaultColor, TextDecoration.ITALIC)
+						.click(ClickEvent.suggestCommand("/" + commandName + " " + subcommand.name), null)
+						.newline();
 				}
 				
-				player.sendMessage(message);
+				CommandEvents.commitHelpRender(event, subcommand.name, 0, 1);
+				message.send();
 				return true;
 			}
 		}
@@ -301,18 +291,18 @@ public class HelpCommand extends SubCommand {
 	public Boolean onCommand(@NotNull CommandSender sender, @NotNull Command command, @NotNull String label, SubCommandResult result) {
 		String currentArgument = result.getCurrentArgument();
 		if (result.isUsage) {
-			if (currentArgument != null && CommandManager.isStringInteger(currentArgument)) {
-				return showHelp((Player) sender, Integer.parseInt(currentArgument), pageLimit);
+			if (result.currentUsageIndex > 0) {
+				return showSearch(sender, Arrays.copyOfRange(result.arguments, result.currentArgumentIndex - result.currentUsageIndex, result.currentArgumentIndex + 1));
+			} else if (currentArgument != null && CommandManager.isStringInteger(currentArgument)) {
+				return showHelp(sender, Integer.parseInt(currentArgument), pageLimit);
+			} else if (currentArgument != null && this.manager.getSubCommand(currentArgument) == null) {
+				return showSearch(sender, new String[] { currentArgument });
 			} else {
-				return showHelp((Player) sender, currentArgument);
+				return showHelp(sender, currentArgument);
 			}
 		} else {
-			if (sender instanceof Player) {
-				return showHelp((Player) sender, defaultPage, pageLimit);
-			}
+			return showHelp(sender, defaultPage, pageLimit);
 		}
-		
-		return true;
 	}
 	
 	@Override
@@ -0,0 +1,109 @@
+package com.drafakiller.commandmanager.commands;
+
+import com.drafakiller.commandmanager.SubCommand;
+import com.drafakiller.commandmanager.SubCommandResult;
+import com.drafakiller.commandmanager.message.OutputRenderer;
+import com.drafakiller.commandmanager.page.Cursor;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.event.ClickEvent;
+import net.kyori.adventure.text.format.NamedTextColor;
+import net.kyori.adventure.text.format.TextColor;
+import net.kyori.adventure.text.format.TextDecoration;
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandSender;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+
+/**
+ * Moves through the pages of the output of paged sub commands, with the sender's {@link Cursor}.
+ * <p>
+ * Added by the manager along with the first paged sub command, only senders with a cursor have permission for it.
+ */
+public class PageCommand extends SubCommand {
+	
+	protected TextColor defaultColor;
+	
+	public PageCommand() {
+		this.name = "page";
+		this.info = "Shows the next or previous page of a list.";
+		this.usage = new String[][] { { "next", "previous" }, { "%number%" } };
+		this.defaultColor = NamedTextColor.DARK_AQUA;
+	}
+	
+	@Override
+	public Boolean onPermission(CommandSender sender) {
+		return this.manager.cursors.has(sender);
+	}
+	
+	@Override
+	public Boolean onCommand(@NotNull CommandSender sender, @NotNull Command command, @NotNull String label, SubCommandResult result) {
+		if (!result.isUsage) {
+			return false;
+		}
+		
+		String direction = result.arguments[result.currentArgumentIndex - result.currentUsageIndex];
+		Integer id = result.currentUsageIndex > 0 ? Integer.valueOf(result.arguments[result.currentArgumentIndex]) : null;
+		
+		Cursor cursor = this.manager.cursors.get(sender, id);
+		if (cursor == null) {
+			this.manager.renderer(sender).message("page.expired").send();
+			return true;
+		}
+		
+		List<Component> rows = direction.equals("previous") ? cursor.previous() : cursor.next();
+		this.showPage(sender, cursor, rows);
+		return true;
+	}
+	
+	/**
+	 * Shows a page of a paged output, with buttons to the previous and next pages, or the commands for senders that only read text.
+	 *
+	 * @param sender sender viewing the output
+	 * @param cursor cursor of the sender
+	 * @param rows rows of the page
+	 */
+	public void showPage(@NotNull CommandSender sender, @NotNull Cursor cursor, @NotNull List<Component> rows) {
+		String commandName = this.manager.command != null ? this.manager.command.getName() : this.getPlugin().getName();
+		String previousCommand = "/" + commandName + " " + this.name + " previous " + cursor.id;
+		String nextCommand = "/" + commandName + " " + this.name + " next " + cursor.id;
+		boolean hasPrevious = cursor.hasPrevious();
+		boolean hasNext = cursor.hasNext();
+		
+		OutputRenderer message = this.manager.renderer(sender);
+		message.newline();
+		if (cursor.output.title != null) {
+			message.component(cursor.output.title).newline();
+		}
+		if (rows.isEmpty()) {
+			message.message("page.empty");
+		}
+		for (int i = 0; i < rows.size(); i++) {
+			if (i > 0) {
+				message.newline();
+			}
+			message.component(rows.get(i));
+		}
+		if (hasPrevious || hasNext) {
+			message
+				.newline()
+				.message(this.defaultColor, "page.footer", cursor.getPage());
+			if (hasPrevious) {
+				message
+					.message(this.defaultColor, "page.previous")
+					.click(ClickEvent.runCommand(previousCommand), "page.hover", message.styled(previousCommand, this.defaultColor, TextDecoration.BOLD))
+					.plainOnly(" (" + previousCommand + ")");
+			}
+			if (hasPrevious && hasNext) {
+				message.text(" / ", this.defaultColor);
+			}
+			if (hasNext) {
+				message
+					.message(this.defaultColor, "page.next")
+					.click(ClickEvent.runCommand(nextCommand), "page.hover", message.styled(nextCommand, this.defaultColor, TextDecoration.BOLD))
+					.plainOnly(" (" + nextCommand + ")");
+			}
+		}
+		message.send();
+	}
+}
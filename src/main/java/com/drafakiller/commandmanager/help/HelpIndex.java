@@ -0,0 +1,186 @@
+package com.drafakiller.commandmanager.help;
+
+import com.drafakiller.commandmanager.CommandManager;
+import com.drafakiller.commandmanager.SubCommand;
+import org.bukkit.command.CommandSender;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Inverted index of the {@link SubCommand}s of a manager, to search them by words of their name, aliases, usage and info.
+ * <p>
+ * Each word points to the sub commands containing it and how much it weighs on them, a word of the name weighs more than one of the info.
+ * A search only looks at the sub commands containing the words searched, or words starting with them, never at the whole list.
+ * Every word searched must be found, the sub commands are ranked by the sum of the weights and only then checked for permission.
+ */
+public class HelpIndex {
+	
+	public static final int NAME_WEIGHT = 8;
+	public static final int ALIAS_WEIGHT = 6;
+	public static final int USAGE_WEIGHT = 3;
+	public static final int INFO_WEIGHT = 1;
+	
+	/**
+	 * Sub commands with a word starting with the one searched, instead of being it, only get this fraction of the weight.
+	 */
+	protected static final int PREFIX_DIVISOR = 2;
+	
+	protected final TreeMap<String, Map<SubCommand, Integer>> postings = new TreeMap<>();
+	protected final Map<SubCommand, List<String>> words = new HashMap<>();
+	
+	/**
+	 * Adds the words of a sub command to the index, replacing the ones added before. Sub commands without a name are not listed, so not added.
+	 *
+	 * @param subcommand sub command to be added
+	 */
+	public synchronized void add(@NotNull SubCommand subcommand) {
+		this.remove(subcommand);
+		if (subcommand.name.length() <= 0) {
+			return;
+		}
+		
+		Map<String, Integer> weights = new HashMap<>();
+		addWords(weights, subcommand.name, NAME_WEIGHT);
+		for (String alias : subcommand.aliases) {
+			addWords(weights, alias, ALIAS_WEIGHT);
+		}
+		for (String[] usages : subcommand.usage) {
+			for (String usage : usages) {
+				if (!CommandManager.isArgumentKeyword(usage)) {
+					addWords(weights, usage, USAGE_WEIGHT);
+				}
+			}
+		}
+		addWords(weights, subcommand.info, INFO_WEIGHT);
+		
+		for (Map.Entry<String, Integer> entry : weights.entrySet()) {
+			postings.computeIfAbsent(entry.getKey(), word -> new HashMap<>()).put(subcommand, entry.getValue());
+		}
+		words.put(subcommand, new ArrayList<>(weights.keySet()));
+	}
+	
+	/**
+	 * Removes the words of a sub command from the index.
+	 *
+	 * @param subcommand sub command to be removed
+	 */
+	public synchronized void remove(@NotNull SubCommand subcommand) {
+		List<String> previous = words.remove(subcommand);
+		if (previous == null) {
+			return;
+		}
+		for (String word : previous) {
+			Map<SubCommand, Integer> posting = postings.get(word);
+			if (posting != null) {
+				posting.remove(subcommand);
+				if (posting.isEmpty()) {
+					postings.remove(word);
+				}
+			}
+		}
+	}
+	
+	public synchronized int size() {
+		return words.size();
+	}
+	
+	/**
+	 * Searches the sub commands with every word of the query, ranked by how well they match, that the sender has permission for.
+	 *
+	 * @param sender sender searching, to check the permission of the results
+	 * @param query words to be searched
+	 * @param limit max amount of results
+	 * @return the sub commands found, best first
+	 */
+	public @NotNull List<SubCommand> search(@NotNull CommandSender sender, @NotNull String[] query, int limit) {
+		List<String> terms = new ArrayList<>();
+		for (String text : query) {
+			terms.addAll(tokenize(text));
+		}
+		if (terms.isEmpty() || limit <= 0) {
+			return new ArrayList<>();
+		}
+		
+		List<Map.Entry<SubCommand, Integer>> ranked;
+		synchronized (this) {
+			Map<SubCommand, Integer> scores = null;
+			for (String term : terms) {
+				Map<SubCommand, Integer> termScores = this.score(term);
+				if (scores == null) {
+					scores = termScores;
+				} else {
+					scores.keySet().retainAll(termScores.keySet());
+					for (Map.Entry<SubCommand, Integer> entry : scores.entrySet()) {
+						entry.setValue(entry.getValue() + termScores.get(entry.getKey()));
+					}
+				}
+				if (scores.isEmpty()) {
+					return new ArrayList<>();
+				}
+			}
+			ranked = new ArrayList<>(scores.entrySet());
+		}
+		
+		ranked.sort((a, b) -> {
+			int compare = Integer.compare(b.getValue(), a.getValue());
+			return compare != 0 ? compare : a.getKey().name.compareTo(b.getKey().name);
+		});
+		
+		List<SubCommand> results = new ArrayList<>();
+		for (Map.Entry<SubCommand, Integer> entry : ranked) {
+			if (entry.getKey().senderHasPermission(sender)) {
+				results.add(entry.getKey());
+				if (results.size() >= limit) {
+					break;
+				}
+			}
+		}
+		return results;
+	}
+	
+	/**
+	 * Returns the weight of a word searched on each sub command containing it, or a word starting with it.
+	 */
+	protected @NotNull Map<SubCommand, Integer> score(@NotNull String term) {
+		Map<SubCommand, Integer> scores = new HashMap<>();
+		for (Map.Entry<String, Map<SubCommand, Integer>> posting : postings.subMap(term, true, term + Character.MAX_VALUE, false).entrySet()) {
+			boolean exact = posting.getKey().equals(term);
+			for (Map.Entry<SubCommand, Integer> entry : posting.getValue().entrySet()) {
+				int weight = exact ? entry.getValue() : Math.max(1, entry.getValue() / PREFIX_DIVISOR);
+				scores.merge(entry.getKey(), weight, Math::max);
+			}
+		}
+		return scores;
+	}
+	
+	protected static void addWords(@NotNull Map<String, Integer> weights, @NotNull String text, int weight) {
+		for (String word : tokenize(text)) {
+			weights.merge(word, weight, Math::max);
+		}
+	}
+	
+	/**
+	 * Splits a text into its lowercase words, anything other than letters and digits separates them.
+	 */
+	public static @NotNull List<String> tokenize(@NotNull String text) {
+		List<String> tokens = new ArrayList<>();
+		int start = -1;
+		for (int i = 0; i <= text.length(); i++) {
+			if (i < text.length() && Character.isLetterOrDigit(text.charAt(i))) {
+				if (start < 0) {
+					start = i;
+				}
+			} else if (start >= 0) {
+				tokens.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+				start = -1;
+			}
+		}
+		return tokens;
+	}
+}
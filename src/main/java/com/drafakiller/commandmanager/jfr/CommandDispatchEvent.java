@@ -0,0 +1,32 @@
+package com.drafakiller.commandmanager.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event of a command run through {@link com.drafakiller.commandmanager.CommandManager}, from the search of the sub command until it's handed to the thread that runs it.
+ * The wait for that thread is a {@link CommandQueueEvent}, and running the sub command a {@link CommandExecuteEvent}.
+ */
+@Name("com.drafakiller.commandmanager.CommandDispatch")
+@Label("Command Dispatch")
+@Description("Search of a sub command, until it is handed to the thread that runs it")
+@Category({ "CommandManager" })
+public class CommandDispatchEvent extends jdk.jfr.Event {
+	
+	@Label("Command")
+	public String command;
+	
+	@Label("Sub Command")
+	@Description("Name of the sub command found, empty if none was found")
+	public String subcommand;
+	
+	@Label("Arguments")
+	public String arguments;
+	
+	@Label("Valid")
+	@Description("Whether the arguments matched a sub command")
+	public boolean valid;
+	
+}
@@ -0,0 +1,172 @@
+package com.drafakiller.commandmanager.jfr;
+
+import org.bukkit.command.CommandSender;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Starts and commits the Flight Recorder events of the manager.
+ * <p>
+ * Events are only created when the {@code jdk.jfr} module is present, otherwise every method returns null or does nothing, so older Java 8 runtimes still work.
+ * Events are handed to callers as an {@code Object}, so classes outside this package never name an event type, in a field, a signature or a lambda, and never load {@code jdk.jfr.Event}.
+ * They can also be turned off entirely with {@code -Dcommandmanager.jfr=false}.
+ * <p>
+ * While no recording is running, starting an event is only an allocation the JIT can remove, and the fields are not even filled since {@code shouldCommit} returns false.
+ */
+public final class CommandEvents {
+	
+	public static final boolean ENABLED = isAvailable();
+	
+	private CommandEvents() {}
+	
+	private static boolean isAvailable() {
+		if (!Boolean.parseBoolean(System.getProperty("commandmanager.jfr", "true"))) {
+			return false;
+		}
+		try {
+			Class.forName("jdk.jfr.Event", false, CommandEvents.class.getClassLoader());
+			return true;
+		} catch (Throwable e) {
+			return false;
+		}
+	}
+	
+	public static @Nullable Object beginDispatch() {
+		if (!ENABLED) {
+			return null;
+		}
+		CommandDispatchEvent event = new CommandDispatchEvent();
+		event.begin();
+		return event;
+	}
+	
+	public static void commitDispatch(@Nullable Object handle, @NotNull String command, @NotNull String[] arguments, @Nullable String subcommand, boolean valid) {
+		if (handle == null) {
+			return;
+		}
+		CommandDispatchEvent event = (CommandDispatchEvent) handle;
+		event.end();
+		if (event.shouldCommit()) {
+			event.command = command;
+			event.arguments = String.join(" ", arguments);
+			event.subcommand = subcommand != null ? subcommand : "";
+			event.valid = valid;
+			event.commit();
+		}
+	}
+	
+	public static @Nullable Object beginQueue() {
+		if (!ENABLED) {
+			return null;
+		}
+		CommandQueueEvent event = new CommandQueueEvent();
+		event.begin();
+		return event;
+	}
+	
+	public static void commitQueue(@Nullable Object handle, @NotNull String command, @NotNull String subcommand, boolean retired) {
+		if (handle == null) {
+			return;
+		}
+		CommandQueueEvent event = (CommandQueueEvent) handle;
+		event.end();
+		if (event.shouldCommit()) {
+			event.command = command;
+			event.subcommand = subcommand;
+			event.retired = retired;
+			event.commit();
+		}
+	}
+	
+	public static @Nullable Object beginExecute() {
+		if (!ENABLED) {
+			return null;
+		}
+		CommandExecuteEvent event = new CommandExecuteEvent();
+		event.begin();
+		return event;
+	}
+	
+	public static void commitExecute(@Nullable Object handle, @NotNull String command, @NotNull String subcommand, boolean accepted) {
+		if (handle == null) {
+			return;
+		}
+		CommandExecuteEvent event = (CommandExecuteEvent) handle;
+		event.end();
+		if (event.shouldCommit()) {
+			event.command = command;
+			event.subcommand = subcommand;
+			event.accepted = accepted;
+			event.commit();
+		}
+	}
+	
+	public static @Nullable Object beginTabComplete() {
+		if (!ENABLED) {
+			return null;
+		}
+		TabCompleteEvent event = new TabCompleteEvent();
+		event.begin();
+		return event;
+	}
+	
+	public static void commitTabComplete(@Nullable Object handle, @NotNull String command, @NotNull String[] arguments, int candidates) {
+		if (handle == null) {
+			return;
+		}
+		TabCompleteEvent event = (TabCompleteEvent) handle;
+		event.end();
+		if (event.shouldCommit()) {
+			event.command = command;
+			event.arguments = String.join(" ", arguments);
+			event.candidates = candidates;
+			event.commit();
+		}
+	}
+	
+	public static @Nullable Object beginPermissionCheck() {
+		if (!ENABLED) {
+			return null;
+		}
+		PermissionCheckEvent event = new PermissionCheckEvent();
+		event.begin();
+		return event;
+	}
+	
+	public static void commitPermissionCheck(@Nullable Object handle, @NotNull String subcommand, @NotNull CommandSender sender, boolean permitted) {
+		if (handle == null) {
+			return;
+		}
+		PermissionCheckEvent event = (PermissionCheckEvent) handle;
+		event.end();
+		if (event.shouldCommit()) {
+			event.subcommand = subcommand;
+			event.sender = sender.getName();
+			event.permitted = permitted;
+			event.commit();
+		}
+	}
+	
+	public static @Nullable Object beginHelpRender() {
+		if (!ENABLED) {
+			return null;
+		}
+		HelpRenderEvent event = new HelpRenderEvent();
+		event.begin();
+		return event;
+	}
+	
+	public static void commitHelpRender(@Nullable Object handle, @Nullable String subcommand, int page, int entries) {
+		if (handle == null) {
+			return;
+		}
+		HelpRenderEvent event = (HelpRenderEvent) handle;
+		event.end();
+		if (event.shouldCommit()) {
+			event.subcommand = subcommand != null ? subcommand : "";
+			event.page = page;
+			event.entries = entries;
+			event.commit();
+		}
+	}
+}
@@ -0,0 +1,28 @@
+package com.drafakiller.commandmanager.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event of a sub command running, on the thread given by its affinity.
+ * Budgeted sub commands only count queuing their work, cacheable ones sending their output.
+ */
+@Name("com.drafakiller.commandmanager.CommandExecute")
+@Label("Command Execute")
+@Description("Execution of a sub command")
+@Category({ "CommandManager" })
+public class CommandExecuteEvent extends jdk.jfr.Event {
+	
+	@Label("Command")
+	public String command;
+	
+	@Label("Sub Command")
+	public String subcommand;
+	
+	@Label("Accepted")
+	@Description("Whether the sub command accepted the command")
+	public boolean accepted;
+	
+}
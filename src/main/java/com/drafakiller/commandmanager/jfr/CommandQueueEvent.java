@@ -0,0 +1,28 @@
+package com.drafakiller.commandmanager.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event of a command waiting for the thread given by the affinity of its sub command, on regionized servers the region of the sender, for example.
+ * Committed on that thread, when the sub command starts running, or when the sender was removed before.
+ */
+@Name("com.drafakiller.commandmanager.CommandQueue")
+@Label("Command Queue")
+@Description("Wait of a command for the thread that runs its sub command")
+@Category({ "CommandManager" })
+public class CommandQueueEvent extends jdk.jfr.Event {
+	
+	@Label("Command")
+	public String command;
+	
+	@Label("Sub Command")
+	public String subcommand;
+	
+	@Label("Retired")
+	@Description("Whether the sender was removed before the command could run")
+	public boolean retired;
+	
+}
@@ -0,0 +1,28 @@
+package com.drafakiller.commandmanager.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event of a help message built by {@link com.drafakiller.commandmanager.commands.HelpCommand}.
+ */
+@Name("com.drafakiller.commandmanager.HelpRender")
+@Label("Command Help Render")
+@Description("Building of a help page or of the help of a sub command")
+@Category({ "CommandManager" })
+public class HelpRenderEvent extends jdk.jfr.Event {
+	
+	@Label("Sub Command")
+	@Description("Sub command whose help was shown, empty for the command list")
+	public String subcommand;
+	
+	@Label("Page")
+	public int page;
+	
+	@Label("Entries")
+	@Description("Amount of sub commands listed")
+	public int entries;
+	
+}
@@ -0,0 +1,26 @@
+package com.drafakiller.commandmanager.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event of a {@link com.drafakiller.commandmanager.SubCommand}'s {@code onPermission} being evaluated.
+ */
+@Name("com.drafakiller.commandmanager.PermissionCheck")
+@Label("Command Permission Check")
+@Description("Evaluation of onPermission of a sub command")
+@Category({ "CommandManager" })
+public class PermissionCheckEvent extends jdk.jfr.Event {
+	
+	@Label("Sub Command")
+	public String subcommand;
+	
+	@Label("Sender")
+	public String sender;
+	
+	@Label("Permitted")
+	public boolean permitted;
+	
+}
@@ -0,0 +1,27 @@
+package com.drafakiller.commandmanager.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event of a tab completion answered by {@link com.drafakiller.commandmanager.CommandManager}.
+ */
+@Name("com.drafakiller.commandmanager.TabComplete")
+@Label("Command Tab Complete")
+@Description("Tab completion of a command")
+@Category({ "CommandManager" })
+public class TabCompleteEvent extends jdk.jfr.Event {
+	
+	@Label("Command")
+	public String command;
+	
+	@Label("Arguments")
+	public String arguments;
+	
+	@Label("Candidates")
+	@Description("Amount of options returned to the sender")
+	public int candidates;
+	
+}
@@ -0,0 +1,96 @@
+package com.drafakiller.commandmanager.message;
+
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.TextComponent;
+import net.kyori.adventure.text.event.ClickEvent;
+import net.kyori.adventure.text.event.HoverEvent;
+import net.kyori.adventure.text.format.TextColor;
+import net.kyori.adventure.text.format.TextDecoration;
+import org.bukkit.command.CommandSender;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Renders a message as a component, with colors, hover and click events.
+ * The last part added is kept apart until the next one, so {@code click} can still add events to it.
+ */
+public class ComponentRenderer implements OutputRenderer {
+	
+	protected final Messages messages;
+	protected final CommandSender sender;
+	protected final TextComponent.Builder message = Component.text();
+	protected @Nullable Component last;
+	
+	public ComponentRenderer(@NotNull Messages messages, @NotNull CommandSender sender) {
+		this.messages = messages;
+		this.sender = sender;
+	}
+	
+	protected @NotNull OutputRenderer add(@NotNull Component component) {
+		if (last != null) {
+			message.append(last);
+		}
+		last = component;
+		return this;
+	}
+	
+	@Override
+	public @NotNull OutputRenderer newline() {
+		return this.add(Component.newline());
+	}
+	
+	@Override
+	public @NotNull OutputRenderer text(@NotNull String text) {
+		return this.add(Component.text(text));
+	}
+	
+	@Override
+	public @NotNull OutputRenderer text(@NotNull String text, @Nullable TextColor color, @NotNull TextDecoration... decorations) {
+		return this.add(Component.text(text, color, decorations));
+	}
+	
+	@Override
+	public @NotNull OutputRenderer message(@NotNull String key, @NotNull Object... values) {
+		return this.add(messages.render(sender, key, values));
+	}
+	
+	@Override
+	public @NotNull OutputRenderer message(@Nullable TextColor color, @NotNull String key, @NotNull Object... values) {
+		return this.add(messages.render(sender, key, values).color(color));
+	}
+	
+	@Override
+	public @NotNull OutputRenderer component(@NotNull Component component) {
+		return this.add(component);
+	}
+	
+	@Override
+	public @NotNull OutputRenderer click(@NotNull ClickEvent click, @Nullable String hoverKey, @NotNull Object... hoverValues) {
+		if (last != null) {
+			last = last.clickEvent(click);
+			if (hoverKey != null) {
+				last = last.hoverEvent(HoverEvent.showText(messages.render(sender, hoverKey, hoverValues)));
+			}
+		}
+		return this;
+	}
+	
+	@Override
+	public @NotNull OutputRenderer plainOnly(@NotNull String text) {
+		return this;
+	}
+	
+	@Override
+	public @NotNull Object styled(@NotNull String text, @Nullable TextColor color, @NotNull TextDecoration... decorations) {
+		return Component.text(text, color, decorations);
+	}
+	
+	@Override
+	public void send() {
+		if (last != null) {
+			message.append(last);
+			last = null;
+		}
+		sender.sendMessage(message.build());
+	}
+}
@@ -0,0 +1,238 @@
+package com.drafakiller.commandmanager.message;
+
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.ComponentLike;
+import net.kyori.adventure.text.TextComponent;
+import net.kyori.adventure.text.format.NamedTextColor;
+import net.kyori.adventure.text.format.Style;
+import net.kyori.adventure.text.format.TextDecoration;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A message parsed once into reusable components, with slots to be filled when sent.
+ * <p>
+ * Templates are written with {@code &} codes for the style, like {@code &c} for red or {@code &l} for bold, and {@code &r} to go back to the style of the parent.
+ * Slots are written as {@code {0}}, {@code {1}}..., and are filled with the values given to {@code render} in the same order, which lets translations move them around.
+ * A value can be a text or a component, to keep the colors and events set by the code.
+ * <p>
+ * The text between the slots is built into components only once, since components can't be changed they are shared by every message rendered.
+ * Senders that only read text, like the console, get the same text through {@code appendPlain}, without building any component.
+ */
+public class MessageTemplate {
+	
+	protected static final NamedTextColor[] COLORS = new NamedTextColor[] {
+		NamedTextColor.BLACK, NamedTextColor.DARK_BLUE, NamedTextColor.DARK_GREEN, NamedTextColor.DARK_AQUA,
+		NamedTextColor.DARK_RED, NamedTextColor.DARK_PURPLE, NamedTextColor.GOLD, NamedTextColor.GRAY,
+		NamedTextColor.DARK_GRAY, NamedTextColor.BLUE, NamedTextColor.GREEN, NamedTextColor.AQUA,
+		NamedTextColor.RED, NamedTextColor.LIGHT_PURPLE, NamedTextColor.YELLOW, NamedTextColor.WHITE
+	};
+	
+	protected final String raw;
+	
+	/**
+	 * Component of each text segment, null where the segment is a slot.
+	 */
+	protected final Component[] literals;
+	
+	/**
+	 * Text of each text segment, without style, null where the segment is a slot.
+	 */
+	protected final String[] texts;
+	
+	/**
+	 * Value index of each slot segment, -1 where the segment is text.
+	 */
+	protected final int[] slots;
+	
+	/**
+	 * Style of each segment.
+	 */
+	protected final Style[] styles;
+	
+	protected MessageTemplate(@NotNull String raw, @NotNull Component[] literals, @NotNull String[] texts, @NotNull int[] slots, @NotNull Style[] styles) {
+		this.raw = raw;
+		this.literals = literals;
+		this.texts = texts;
+		this.slots = slots;
+		this.styles = styles;
+	}
+	
+	/**
+	 * Parses a template into its segments.
+	 *
+	 * @param raw template to be parsed
+	 * @return the parsed template
+	 */
+	public static @NotNull MessageTemplate parse(@NotNull String raw) {
+		List<Component> literals = new ArrayList<>();
+		List<String> texts = new ArrayList<>();
+		List<Integer> slots = new ArrayList<>();
+		List<Style> styles = new ArrayList<>();
+		
+		Style style = Style.empty();
+		StringBuilder text = new StringBuilder();
+		
+		for (int i = 0; i < raw.length(); i++) {
+			char character = raw.charAt(i);
+			
+			if (character == '&' && i + 1 < raw.length()) {
+				char code = Character.toLowerCase(raw.charAt(i + 1));
+				if (code == '&') {
+					text.append('&');
+					i++;
+					continue;
+				}
+				Style next = applyCode(style, code);
+				if (next != null) {
+					addLiteral(text, style, literals, texts, slots, styles);
+					style = next;
+					i++;
+					continue;
+				}
+			}
+			
+			if (character == '{') {
+				int close = raw.indexOf('}', i);
+				if (close > i + 1 && isDigits(raw, i + 1, close)) {
+					addLiteral(text, style, literals, texts, slots, styles);
+					literals.add(null);
+					texts.add(null);
+					slots.add(Integer.parseInt(raw.substring(i + 1, close)));
+					styles.add(style);
+					i = close;
+					continue;
+				}
+			}
+			
+			text.append(character);
+		}
+		addLiteral(text, style, literals, texts, slots, styles);
+		
+		int[] slotArray = new int[slots.size()];
+		for (int i = 0; i < slotArray.length; i++) {
+			slotArray[i] = slots.get(i);
+		}
+		return new MessageTemplate(raw, literals.toArray(new Component[0]), texts.toArray(new String[0]), slotArray, styles.toArray(new Style[0]));
+	}
+	
+	protected static void addLiteral(@NotNull StringBuilder text, @NotNull Style style, @NotNull List<Component> literals, @NotNull List<String> texts, @NotNull List<Integer> slots, @NotNull List<Style> styles) {
+		if (text.length() > 0) {
+			literals.add(Component.text(text.toString(), style));
+			texts.add(text.toString());
+			slots.add(-1);
+			styles.add(style);
+			text.setLength(0);
+		}
+	}
+	
+	protected static Style applyCode(@NotNull Style style, char code) {
+		if (code >= '0' && code <= '9') {
+			return Style.style(COLORS[code - '0']);
+		} else if (code >= 'a' && code <= 'f') {
+			return Style.style(COLORS[code - 'a' + 10]);
+		}
+		switch (code) {
+			case 'k':
+				return style.decoration(TextDecoration.OBFUSCATED, true);
+			case 'l':
+				return style.decoration(TextDecoration.BOLD, true);
+			case 'm':
+				return style.decoration(TextDecoration.STRIKETHROUGH, true);
+			case 'n':
+				return style.decoration(TextDecoration.UNDERLINED, true);
+			case 'o':
+				return style.decoration(TextDecoration.ITALIC, true);
+			case 'r':
+				return Style.empty();
+			default:
+				return null;
+		}
+	}
+	
+	protected static boolean isDigits(@NotNull String text, int start, int end) {
+		for (int i = start; i < end; i++) {
+			if (!Character.isDigit(text.charAt(i))) {
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	/**
+	 * Builds the message, filling the slots with the values.
+	 * Components are appended as they are, other values as text with the style of the slot.
+	 *
+	 * @param values values of the slots, in order
+	 * @return the message
+	 */
+	public @NotNull Component render(@NotNull Object... values) {
+		if (literals.length == 1 && slots[0] < 0) {
+			return literals[0];
+		}
+		
+		TextComponent.Builder message = Component.text();
+		for (int i = 0; i < literals.length; i++) {
+			if (slots[i] < 0) {
+				message.append(literals[i]);
+				continue;
+			}
+			
+			Object value = slots[i] < values.length ? values[slots[i]] : "";
+			if (value instanceof ComponentLike) {
+				if (styles[i].isEmpty()) {
+					message.append((ComponentLike) value);
+				} else {
+					message.append(Component.text().style(styles[i]).append((ComponentLike) value));
+				}
+			} else {
+				message.append(Component.text(String.valueOf(value), styles[i]));
+			}
+		}
+		return message.build();
+	}
+	
+	/**
+	 * Writes the message as plain text, without style, filling the slots with the values.
+	 * Nothing is built, the text is appended straight to the builder, components given as values are appended by their text.
+	 *
+	 * @param out builder to write to
+	 * @param values values of the slots, in order
+	 * @return the builder, for chaining
+	 */
+	public @NotNull StringBuilder appendPlain(@NotNull StringBuilder out, @NotNull Object... values) {
+		for (int i = 0; i < texts.length; i++) {
+			if (slots[i] < 0) {
+				out.append(texts[i]);
+				continue;
+			}
+			
+			Object value = slots[i] < values.length ? values[slots[i]] : "";
+			if (value instanceof ComponentLike) {
+				appendPlain(out, ((ComponentLike) value).asComponent());
+			} else {
+				out.append(value);
+			}
+		}
+		return out;
+	}
+	
+	/**
+	 * Writes the text of a component and its children, without style.
+	 */
+	public static void appendPlain(@NotNull StringBuilder out, @NotNull Component component) {
+		if (component instanceof TextComponent) {
+			out.append(((TextComponent) component).content());
+		}
+		for (Component child : component.children()) {
+			appendPlain(out, child);
+		}
+	}
+	
+	@Override
+	public String toString() {
+		return raw;
+	}
+}
@@ -0,0 +1,207 @@
+package com.drafakiller.commandmanager.message;
+
+import net.kyori.adventure.text.Component;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Messages of the manager and of the pre-made commands, translated by the locale of the player.
+ * <p>
+ * Each locale has its own messages, a message missing from a locale like {@code pt_br} is taken from its language {@code pt}, and then from the default {@code en}.
+ * Templates are parsed the first time they are used in a locale and kept, so sending a message only fills in its slots.
+ * <p>
+ * Replace or translate messages with {@code register}, the keys and default messages can be found in {@link #DEFAULTS}.
+ */
+public class Messages {
+	
+	public static final String DEFAULT_LOCALE = "en";
+	
+	/**
+	 * Default English messages, by key.
+	 */
+	public static final Map<String, String> DEFAULTS = new LinkedHashMap<>();
+	
+	static {
+		DEFAULTS.put("error.prefix", "&c&l[{0}]");
+		DEFAULTS.put("error.incorrect-argument", "&c&l Incorrect argument for command:");
+		
+		DEFAULTS.put("schedule.queued", "&6[{0}]&7 The server is busy, your command is queued at position {1}.");
+		
+		DEFAULTS.put("page.footer", " Page {0} - ");
+		DEFAULTS.put("page.previous", "&lPrevious");
+		DEFAULTS.put("page.next", "&lNext");
+		DEFAULTS.put("page.hover", "Click here to run {0}");
+		DEFAULTS.put("page.empty", "&o  - Nothing to show...");
+		DEFAULTS.put("page.expired", "&cThis list has expired, run the command again to see it.");
+		
+		DEFAULTS.put("about.title", "[&l{0}&r - About]");
+		DEFAULTS.put("about.plugin", " Plugin: ");
+		DEFAULTS.put("about.version", " Version: {0}");
+		DEFAULTS.put("about.description", " Description: &7{0}");
+		DEFAULTS.put("about.author", " Author:");
+		DEFAULTS.put("about.authors", " Authors:");
+		DEFAULTS.put("about.contributor", " Contributor:");
+		DEFAULTS.put("about.contributors", " Contributors:");
+		DEFAULTS.put("about.website", " Website: ");
+		DEFAULTS.put("about.website.hover", "Click here to open the url {0}");
+		
+		DEFAULTS.put("help.title", "[&l{0}&r - Help]");
+		DEFAULTS.put("help.list", "All available commands:");
+		DEFAULTS.put("help.entry.hover", "Click here to see more information about {0}");
+		DEFAULTS.put("help.page", " Page {0} of {1} - ");
+		DEFAULTS.put("help.page.hover", "Click here to {0}");
+		DEFAULTS.put("help.page.previous", "&lPrevious");
+		DEFAULTS.put("help.page.next", "&lNext");
+		DEFAULTS.put("help.page.suffix", " page");
+		DEFAULTS.put("help.empty", "&o  - No commands to show...");
+		DEFAULTS.put("help.search", "Commands found for {0}:");
+		DEFAULTS.put("help.search.empty", "&o  - No commands found...");
+		
+		DEFAULTS.put("help.command.title", "[&l{0}&r - Command]");
+		DEFAULTS.put("help.command.title.hover", "Click here to check {0}'s command list");
+		DEFAULTS.put("help.command.name", " Command: ");
+		DEFAULTS.put("help.command.name.hover", "Click here to run the command {0}");
+		DEFAULTS.put("help.command.aliases", " Aliases:");
+		DEFAULTS.put("help.command.description", " Description: ");
+		DEFAULTS.put("help.command.usage-of", " Usage of {0}:");
+		DEFAULTS.put("help.command.usage-argument", " <argument {0}>");
+		DEFAULTS.put("help.command.subcommands", "&l   Sub commands:");
+		DEFAULTS.put("help.command.argument", "&l   Argument {0}:");
+		DEFAULTS.put("help.command.usage", " Usage: ");
+	}
+	
+	protected final ConcurrentHashMap<String, Map<String, String>> locales = new ConcurrentHashMap<>();
+	protected final ConcurrentHashMap<String, ConcurrentHashMap<String, MessageTemplate>> templates = new ConcurrentHashMap<>();
+	
+	public Messages() {
+		locales.put(DEFAULT_LOCALE, new ConcurrentHashMap<>(DEFAULTS));
+	}
+	
+	/**
+	 * Adds or replaces messages of a locale, and returns itself for chaining.
+	 *
+	 * @param locale locale of the messages, like {@code en}, {@code pt} or {@code pt_br}
+	 * @param messages messages by key
+	 * @return this object, for chaining
+	 */
+	public @NotNull Messages register(@NotNull String locale, @NotNull Map<String, String> messages) {
+		locales.computeIfAbsent(normalizeLocale(locale), key -> new ConcurrentHashMap<>()).putAll(messages);
+		templates.clear();
+		return this;
+	}
+	
+	/**
+	 * Adds or replaces a message of a locale, and returns itself for chaining.
+	 *
+	 * @param locale locale of the message
+	 * @param key key of the message
+	 * @param template the message
+	 * @return this object, for chaining
+	 */
+	public @NotNull Messages register(@NotNull String locale, @NotNull String key, @NotNull String template) {
+		Map<String, String> messages = new HashMap<>();
+		messages.put(key, template);
+		return this.register(locale, messages);
+	}
+	
+	public static @NotNull String normalizeLocale(@NotNull String locale) {
+		return locale.replace('-', '_').toLowerCase(Locale.ROOT);
+	}
+	
+	/**
+	 * Returns the locale of a sender, the player's client locale or the default for others.
+	 *
+	 * @param sender sender to be checked
+	 * @return the locale
+	 */
+	public @NotNull String getLocale(@NotNull CommandSender sender) {
+		if (sender instanceof Player) {
+			String locale = ((Player) sender).getLocale();
+			if (locale != null && locale.length() > 0) {
+				return locale;
+			}
+		}
+		return DEFAULT_LOCALE;
+	}
+	
+	/**
+	 * Returns the parsed template of a message in a locale.
+	 *
+	 * @param locale locale of the message
+	 * @param key key of the message
+	 * @return the template, the key itself if the message doesn't exist
+	 */
+	public @NotNull MessageTemplate get(@NotNull String locale, @NotNull String key) {
+		ConcurrentHashMap<String, MessageTemplate> compiled = templates.get(locale);
+		if (compiled == null) {
+			compiled = templates.computeIfAbsent(locale, tag -> new ConcurrentHashMap<>());
+		}
+		
+		MessageTemplate template = compiled.get(key);
+		if (template == null) {
+			template = MessageTemplate.parse(this.getRaw(normalizeLocale(locale), key));
+			compiled.put(key, template);
+		}
+		return template;
+	}
+	
+	public @NotNull MessageTemplate get(@NotNull CommandSender sender, @NotNull String key) {
+		return this.get(this.getLocale(sender), key);
+	}
+	
+	/**
+	 * Renders a message in the locale of a sender.
+	 *
+	 * @param sender sender the message is for
+	 * @param key key of the message
+	 * @param values values of the slots, in order
+	 * @return the message
+	 */
+	public @NotNull Component render(@NotNull CommandSender sender, @NotNull String key, @NotNull Object... values) {
+		return this.get(sender, key).render(values);
+	}
+	
+	/**
+	 * Writes a message in the locale of a sender as plain text, for senders that only read text.
+	 *
+	 * @param out builder to write to
+	 * @param sender sender the message is for
+	 * @param key key of the message
+	 * @param values values of the slots, in order
+	 * @return the builder, for chaining
+	 */
+	public @NotNull StringBuilder appendPlain(@NotNull StringBuilder out, @NotNull CommandSender sender, @NotNull String key, @NotNull Object... values) {
+		return this.get(sender, key).appendPlain(out, values);
+	}
+	
+	/**
+	 * Searches the message in the locale, then in its language, then in the default locale.
+	 */
+	protected @NotNull String getRaw(@NotNull String locale, @NotNull String key) {
+		Map<String, String> messages = locales.get(locale);
+		if (messages != null && messages.containsKey(key)) {
+			return messages.get(key);
+		}
+		
+		int separator = locale.indexOf('_');
+		if (separator > 0) {
+			messages = locales.get(locale.substring(0, separator));
+			if (messages != null && messages.containsKey(key)) {
+				return messages.get(key);
+			}
+		}
+		
+		messages = locales.get(DEFAULT_LOCALE);
+		if (messages.containsKey(key)) {
+			return messages.get(key);
+		}
+		return key;
+	}
+}
@@ -0,0 +1,65 @@
+package com.drafakiller.commandmanager.message;
+
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.event.ClickEvent;
+import net.kyori.adventure.text.format.TextColor;
+import net.kyori.adventure.text.format.TextDecoration;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Writes a message for a sender part by part, so a command describes its output once for every sender.
+ * <p>
+ * {@link ComponentRenderer} builds a component with colors, hover and click events, {@link PlainTextRenderer} writes plain text for senders that only read text,
+ * ignoring styles and events. Get the one for a sender with {@link com.drafakiller.commandmanager.CommandManager#renderer(org.bukkit.command.CommandSender)}.
+ */
+public interface OutputRenderer {
+	
+	@NotNull OutputRenderer newline();
+	
+	@NotNull OutputRenderer text(@NotNull String text);
+	
+	@NotNull OutputRenderer text(@NotNull String text, @Nullable TextColor color, @NotNull TextDecoration... decorations);
+	
+	/**
+	 * Adds a message, in the locale of the sender.
+	 *
+	 * @param key key of the message
+	 * @param values values of the slots, in order
+	 * @return this object, for chaining
+	 */
+	@NotNull OutputRenderer message(@NotNull String key, @NotNull Object... values);
+	
+	@NotNull OutputRenderer message(@Nullable TextColor color, @NotNull String key, @NotNull Object... values);
+	
+	@NotNull OutputRenderer component(@NotNull Component component);
+	
+	/**
+	 * Makes the last part added do something when clicked, and show a message when hovered.
+	 *
+	 * @param click event of the click
+	 * @param hoverKey key of the message shown on hover, or null for none
+	 * @param hoverValues values of the slots of the hover message
+	 * @return this object, for chaining
+	 */
+	@NotNull OutputRenderer click(@NotNull ClickEvent click, @Nullable String hoverKey, @NotNull Object... hoverValues);
+	
+	/**
+	 * Adds a text only senders that only read text see, like the command a button runs.
+	 *
+	 * @param text text to be added
+	 * @return this object, for chaining
+	 */
+	@NotNull OutputRenderer plainOnly(@NotNull String text);
+	
+	/**
+	 * Returns a styled text to give as a value of a message slot: a component, or the text itself for plain text.
+	 */
+	@NotNull Object styled(@NotNull String text, @Nullable TextColor color, @NotNull TextDecoration... decorations);
+	
+	/**
+	 * Sends the message to the sender, the renderer must not be used after.
+	 */
+	void send();
+	
+}
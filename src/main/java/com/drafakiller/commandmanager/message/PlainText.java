@@ -0,0 +1,92 @@
+package com.drafakiller.commandmanager.message;
+
+import org.bukkit.command.BlockCommandSender;
+import org.bukkit.command.CommandSender;
+import org.bukkit.command.ConsoleCommandSender;
+import org.bukkit.command.RemoteConsoleCommandSender;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayDeque;
+
+/**
+ * Plain text output, for senders that only read text: the console, RCON and command blocks.
+ * <p>
+ * Hover and click events mean nothing to them, so their messages are written straight into a {@link StringBuilder} instead of building components.
+ * Each thread reuses its own builder, only the final text is created when sent.
+ */
+public final class PlainText {
+	
+	/**
+	 * Builders that grew larger than this, by a very long message, are not kept.
+	 */
+	protected static final int MAX_KEPT_CAPACITY = 16384;
+	
+	/**
+	 * Builders kept per thread for {@code acquire}, more are created when many messages are written at once.
+	 */
+	protected static final int MAX_POOLED = 4;
+	
+	protected static final ThreadLocal<StringBuilder> BUFFER = ThreadLocal.withInitial(() -> new StringBuilder(512));
+	protected static final ThreadLocal<ArrayDeque<StringBuilder>> POOL = ThreadLocal.withInitial(ArrayDeque::new);
+	
+	private PlainText() {
+	}
+	
+	/**
+	 * Returns the empty builder of the current thread. It's only valid until the next call on the same thread.
+	 *
+	 * @return the builder
+	 */
+	public static @NotNull StringBuilder buffer() {
+		StringBuilder buffer = BUFFER.get();
+		if (buffer.capacity() > MAX_KEPT_CAPACITY) {
+			buffer = new StringBuilder(512);
+			BUFFER.set(buffer);
+		}
+		buffer.setLength(0);
+		return buffer;
+	}
+	
+	/**
+	 * Takes an empty builder of the current thread that no one else writes to until it's given back with {@code release}, so many messages can be written at once.
+	 *
+	 * @return the builder
+	 */
+	public static @NotNull StringBuilder acquire() {
+		StringBuilder builder = POOL.get().poll();
+		return builder != null ? builder : new StringBuilder(512);
+	}
+	
+	/**
+	 * Gives back a builder taken with {@code acquire}, it must not be used anymore.
+	 *
+	 * @param builder builder to give back
+	 */
+	public static void release(@NotNull StringBuilder builder) {
+		ArrayDeque<StringBuilder> pool = POOL.get();
+		if (builder.capacity() <= MAX_KEPT_CAPACITY && pool.size() < MAX_POOLED) {
+			builder.setLength(0);
+			pool.push(builder);
+		}
+	}
+	
+	/**
+	 * Checks if a sender only reads text: the console, RCON or a command block.
+	 *
+	 * @param sender sender to be checked
+	 * @return true if the sender only reads text, otherwise false
+	 */
+	public static boolean isPlainTextSender(@NotNull CommandSender sender) {
+		return sender instanceof ConsoleCommandSender || sender instanceof RemoteConsoleCommandSender || sender instanceof BlockCommandSender;
+	}
+	
+	/**
+	 * Sends the text written in a builder.
+	 *
+	 * @param sender sender to send to
+	 * @param text text to be sent
+	 */
+	public static void send(@NotNull CommandSender sender, @NotNull StringBuilder text) {
+		sender.sendMessage(text.toString());
+	}
+}
@@ -0,0 +1,98 @@
+package com.drafakiller.commandmanager.message;
+
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.event.ClickEvent;
+import net.kyori.adventure.text.format.TextColor;
+import net.kyori.adventure.text.format.TextDecoration;
+import org.bukkit.command.CommandSender;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Renders a message as plain text, straight into a builder taken from the {@link PlainText} pool of the thread, ignoring styles and events.
+ * The builder is given back when sent, so many renderers can write at once on the same thread.
+ * Empty lines at the start and the end are left out, as they only space out messages in the chat.
+ */
+public class PlainTextRenderer implements OutputRenderer {
+	
+	protected final Messages messages;
+	protected final CommandSender sender;
+	protected final StringBuilder message = PlainText.acquire();
+	
+	public PlainTextRenderer(@NotNull Messages messages, @NotNull CommandSender sender) {
+		this.messages = messages;
+		this.sender = sender;
+	}
+	
+	@Override
+	public @NotNull OutputRenderer newline() {
+		message.append('\n');
+		return this;
+	}
+	
+	@Override
+	public @NotNull OutputRenderer text(@NotNull String text) {
+		message.append(text);
+		return this;
+	}
+	
+	@Override
+	public @NotNull OutputRenderer text(@NotNull String text, @Nullable TextColor color, @NotNull TextDecoration... decorations) {
+		message.append(text);
+		return this;
+	}
+	
+	@Override
+	public @NotNull OutputRenderer message(@NotNull String key, @NotNull Object... values) {
+		messages.appendPlain(message, sender, key, values);
+		return this;
+	}
+	
+	@Override
+	public @NotNull OutputRenderer message(@Nullable TextColor color, @NotNull String key, @NotNull Object... values) {
+		messages.appendPlain(message, sender, key, values);
+		return this;
+	}
+	
+	@Override
+	public @NotNull OutputRenderer component(@NotNull Component component) {
+		MessageTemplate.appendPlain(message, component);
+		return this;
+	}
+	
+	@Override
+	public @NotNull OutputRenderer click(@NotNull ClickEvent click, @Nullable String hoverKey, @NotNull Object... hoverValues) {
+		return this;
+	}
+	
+	@Override
+	public @NotNull OutputRenderer plainOnly(@NotNull String text) {
+		message.append(text);
+		return this;
+	}
+	
+	@Override
+	public @NotNull Object styled(@NotNull String text, @Nullable TextColor color, @NotNull TextDecoration... decorations) {
+		return text;
+	}
+	
+	@Override
+	public void send() {
+		int end = message.length();
+		while (end > 0 && message.charAt(end - 1) == '\n') {
+			end--;
+		}
+		message.setLength(end);
+		
+		int start = 0;
+		while (start < end && message.charAt(start) == '\n') {
+			start++;
+		}
+		message.delete(0, start);
+		try {
+			PlainText.send(sender, message);
+		} finally {
+			PlainText.release(message);
+		}
+	}
+}
@@ -0,0 +1,486 @@
+package com.drafakiller.commandmanager.offline;
+
+import com.drafakiller.commandmanager.schedule.RegionDispatcher;
+import org.bukkit.Bukkit;
+import org.bukkit.OfflinePlayer;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.plugin.Plugin;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+
+/**
+ * Local index of the names and unique ids of every player who joined, used by the {@code %offlineplayer%} keyword without asking the server, which can read from disk or the network.
+ * <p>
+ * Names are kept sorted in a compact memory-mapped file, with fixed size records, so a name or the names starting with a prefix are found with a binary search.
+ * Players joining are added to a small in-memory index first, which is merged into a new file in the background once it grows, or when the index is closed.
+ * <p>
+ * The first time, when there is no file yet, the index is filled with the players the server knows, in the background.
+ * <p>
+ * Only names of up to 16 ASCII characters are kept, which covers every valid Minecraft name.
+ */
+public class OfflinePlayerIndex implements Listener, Closeable {
+	
+	/**
+	 * A player in the index.
+	 */
+	public static final class Entry {
+		public final @NotNull String name;
+		public final @NotNull UUID uniqueId;
+		
+		public Entry(@NotNull String name, @NotNull UUID uniqueId) {
+			this.name = name;
+			this.uniqueId = uniqueId;
+		}
+		
+		@Override
+		public boolean equals(Object other) {
+			return other instanceof Entry && ((Entry) other).name.equals(name) && ((Entry) other).uniqueId.equals(uniqueId);
+		}
+		
+		@Override
+		public int hashCode() {
+			return name.hashCode() * 31 + uniqueId.hashCode();
+		}
+	}
+	
+	protected static final int MAGIC = 0x434D5049;
+	protected static final int VERSION = 1;
+	protected static final int HEADER_SIZE = 16;
+	protected static final int NAME_SIZE = 16;
+	protected static final int RECORD_SIZE = NAME_SIZE * 2 + 16;
+	protected static final String FILE_PREFIX = "players-";
+	protected static final String FILE_SUFFIX = ".idx";
+	
+	/**
+	 * Sorted records of a file, replaced as a whole when a new file is written.
+	 */
+	protected static final class Snapshot {
+		protected final ByteBuffer data;
+		protected final int count;
+		protected final long generation;
+		
+		protected Snapshot(@NotNull ByteBuffer data, int count, long generation) {
+			this.data = data;
+			this.count = count;
+			this.generation = generation;
+		}
+	}
+	
+	protected final Plugin plugin;
+	protected final RegionDispatcher dispatcher;
+	protected final File directory;
+	protected final ConcurrentSkipListMap<String, Entry> pending = new ConcurrentSkipListMap<>();
+	protected final AtomicBoolean merging = new AtomicBoolean();
+	protected volatile Snapshot snapshot;
+	protected int mergeThreshold = 256;
+	
+	/**
+	 * Opens the index in a directory and starts listening to players joining.
+	 *
+	 * @param plugin plugin the index belongs to
+	 * @param directory folder where the index files are kept
+	 */
+	public OfflinePlayerIndex(@NotNull Plugin plugin, @NotNull File directory) {
+		this.plugin = plugin;
+		this.dispatcher = RegionDispatcher.create(plugin);
+		this.directory = directory;
+		this.snapshot = new Snapshot(ByteBuffer.allocate(0), 0, 0);
+		
+		File file = this.findLatestFile();
+		if (file != null) {
+			try {
+				this.snapshot = this.load(file, getGeneration(file.getName()));
+			} catch (IOException e) {
+				plugin.getLogger().log(Level.WARNING, "Could not read the offline player index " + file + ", rebuilding it", e);
+				file = null;
+			}
+		}
+		if (file == null) {
+			this.dispatcher.runAsync(this::fill);
+		}
+		
+		plugin.getServer().getPluginManager().registerEvents(this, plugin);
+	}
+	
+	/**
+	 * Sets how many players can join before they are merged into a new file, and returns itself for chaining.
+	 *
+	 * @param mergeThreshold amount of players
+	 * @return this object, for chaining
+	 */
+	public @NotNull OfflinePlayerIndex setMergeThreshold(int mergeThreshold) {
+		this.mergeThreshold = mergeThreshold;
+		return this;
+	}
+	
+	public static @NotNull String toKey(@NotNull String name) {
+		return name.toLowerCase(Locale.ROOT);
+	}
+	
+	protected static boolean isIndexable(@NotNull String name) {
+		if (name.isEmpty() || name.length() > NAME_SIZE) {
+			return false;
+		}
+		for (int i = 0; i < name.length(); i++) {
+			if (name.charAt(i) > 0x7F || name.charAt(i) == 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	@EventHandler(priority = EventPriority.MONITOR)
+	public void onPlayerJoin(PlayerJoinEvent event) {
+		this.add(event.getPlayer().getName(), event.getPlayer().getUniqueId());
+	}
+	
+	/**
+	 * Adds or updates a player in the index.
+	 *
+	 * @param name name of the player
+	 * @param uniqueId unique id of the player
+	 */
+	public void add(@NotNull String name, @NotNull UUID uniqueId) {
+		if (!isIndexable(name)) {
+			return;
+		}
+		Entry entry = new Entry(name, uniqueId);
+		if (entry.equals(this.get(name))) {
+			return;
+		}
+		pending.put(toKey(name), entry);
+		
+		if (pending.size() >= mergeThreshold && merging.compareAndSet(false, true)) {
+			this.dispatcher.runAsync(() -> {
+				try {
+					this.merge();
+				} finally {
+					merging.set(false);
+				}
+			});
+		}
+	}
+	
+	/**
+	 * Searches a player by name, ignoring case.
+	 *
+	 * @param name name of the player
+	 * @return the player, otherwise null if never joined
+	 */
+	public @Nullable Entry get(@NotNull String name) {
+		if (!isIndexable(name)) {
+			return null;
+		}
+		String key = toKey(name);
+		Entry entry = pending.get(key);
+		if (entry != null) {
+			return entry;
+		}
+		
+		Snapshot current = this.snapshot;
+		byte[] target = key.getBytes(StandardCharsets.US_ASCII);
+		int index = lowerBound(current, target);
+		if (index < current.count && compareKey(current, index, target) == 0) {
+			return readEntry(current, index);
+		}
+		return null;
+	}
+	
+	public @Nullable UUID getUniqueId(@NotNull String name) {
+		Entry entry = this.get(name);
+		return entry != null ? entry.uniqueId : null;
+	}
+	
+	public boolean contains(@NotNull String name) {
+		return this.get(name) != null;
+	}
+	
+	/**
+	 * Returns the names starting with a prefix, ignoring case, in alphabetical order.
+	 *
+	 * @param prefix start of the names
+	 * @param limit max amount of names
+	 * @return the names found
+	 */
+	public @NotNull List<String> complete(@NotNull String prefix, int limit) {
+		List<String> names = new ArrayList<>();
+		if (prefix.length() > NAME_SIZE) {
+			return names;
+		}
+		String key = toKey(prefix);
+		
+		Snapshot current = this.snapshot;
+		byte[] target = key.getBytes(StandardCharsets.US_ASCII);
+		int index = isIndexable(key) ? lowerBound(current, target) : 0;
+		Iterator<Map.Entry<String, Entry>> added = pending.tailMap(key).entrySet().iterator();
+		Map.Entry<String, Entry> next = added.hasNext() ? added.next() : null;
+		
+		while (names.size() < limit) {
+			boolean hasStored = index < current.count && startsWith(current, index, target);
+			boolean hasAdded = next != null && next.getKey().startsWith(key);
+			if (!hasStored && !hasAdded) {
+				break;
+			}
+			
+			int order = !hasStored ? 1 : !hasAdded ? -1 : compareKey(current, index, next.getKey().getBytes(StandardCharsets.US_ASCII));
+			if (order < 0) {
+				names.add(readEntry(current, index).name);
+				index++;
+			} else {
+				names.add(next.getValue().name);
+				if (order == 0) {
+					index++;
+				}
+				next = added.hasNext() ? added.next() : null;
+			}
+		}
+		return names;
+	}
+	
+	/**
+	 * Returns the index of the first record whose key is not less than the target.
+	 */
+	protected static int lowerBound(@NotNull Snapshot snapshot, @NotNull byte[] target) {
+		int low = 0;
+		int high = snapshot.count;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (compareKey(snapshot, middle, target) < 0) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		return low;
+	}
+	
+	protected static int compareKey(@NotNull Snapshot snapshot, int index, @NotNull byte[] target) {
+		int offset = HEADER_SIZE + index * RECORD_SIZE;
+		for (int i = 0; i < NAME_SIZE; i++) {
+			int stored = snapshot.data.get(offset + i) & 0xFF;
+			int wanted = i < target.length ? target[i] & 0xFF : 0;
+			if (stored != wanted) {
+				return stored - wanted;
+			}
+		}
+		return 0;
+	}
+	
+	protected static boolean startsWith(@NotNull Snapshot snapshot, int index, @NotNull byte[] prefix) {
+		int offset = HEADER_SIZE + index * RECORD_SIZE;
+		for (int i = 0; i < prefix.length; i++) {
+			if (snapshot.data.get(offset + i) != prefix[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	protected static @NotNull Entry readEntry(@NotNull Snapshot snapshot, int index) {
+		int offset = HEADER_SIZE + index * RECORD_SIZE + NAME_SIZE;
+		byte[] name = new byte[NAME_SIZE];
+		int length = 0;
+		for (; length < NAME_SIZE; length++) {
+			name[length] = snapshot.data.get(offset + length);
+			if (name[length] == 0) {
+				break;
+			}
+		}
+		UUID uniqueId = new UUID(snapshot.data.getLong(offset + NAME_SIZE), snapshot.data.getLong(offset + NAME_SIZE + 8));
+		return new Entry(new String(name, 0, length, StandardCharsets.US_ASCII), uniqueId);
+	}
+	
+	/**
+	 * Adds every player the server knows, the first time the index is created.
+	 */
+	protected void fill() {
+		for (OfflinePlayer player : Bukkit.getOfflinePlayers()) {
+			String name = player.getName();
+			if (name != null && isIndexable(name)) {
+				pending.putIfAbsent(toKey(name), new Entry(name, player.getUniqueId()));
+			}
+		}
+		if (merging.compareAndSet(false, true)) {
+			try {
+				this.merge();
+			} finally {
+				merging.set(false);
+			}
+		}
+	}
+	
+	/**
+	 * Writes the current file and the players added since into a new file, and starts using it.
+	 */
+	protected synchronized void merge() {
+		Snapshot current = this.snapshot;
+		List<Entry> added = new ArrayList<>(pending.values());
+		if (added.isEmpty()) {
+			return;
+		}
+		
+		long generation = current.generation + 1;
+		File file = new File(directory, FILE_PREFIX + generation + FILE_SUFFIX);
+		try {
+			this.write(file, current, added);
+			this.snapshot = this.load(file, generation);
+		} catch (IOException e) {
+			this.plugin.getLogger().log(Level.WARNING, "Could not write the offline player index " + file, e);
+			return;
+		}
+		
+		for (Entry entry : added) {
+			pending.remove(toKey(entry.name), entry);
+		}
+		this.deleteOldFiles(generation);
+	}
+	
+	protected void write(@NotNull File file, @NotNull Snapshot current, @NotNull List<Entry> added) throws IOException {
+		if (!directory.isDirectory() && !directory.mkdirs()) {
+			throw new IOException("Could not create the directory " + directory);
+		}
+		
+		File temporary = new File(directory, file.getName() + ".tmp");
+		try (FileChannel channel = FileChannel.open(temporary.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			ByteBuffer buffer = ByteBuffer.allocate(64 * RECORD_SIZE);
+			buffer.putInt(MAGIC).putInt(VERSION).putInt(0).putInt(0);
+			
+			int count = 0;
+			int index = 0;
+			int next = 0;
+			while (index < current.count || next < added.size()) {
+				int order;
+				if (index >= current.count) {
+					order = 1;
+				} else if (next >= added.size()) {
+					order = -1;
+				} else {
+					order = compareKey(current, index, toKey(added.get(next).name).getBytes(StandardCharsets.US_ASCII));
+				}
+				
+				Entry entry;
+				if (order < 0) {
+					entry = readEntry(current, index++);
+				} else {
+					entry = added.get(next++);
+					if (order == 0) {
+						index++;
+					}
+				}
+				
+				if (buffer.remaining() < RECORD_SIZE) {
+					buffer.flip();
+					while (buffer.hasRemaining()) {
+						channel.write(buffer);
+					}
+					buffer.clear();
+				}
+				putName(buffer, toKey(entry.name));
+				putName(buffer, entry.name);
+				buffer.putLong(entry.uniqueId.getMostSignificantBits()).putLong(entry.uniqueId.getLeastSignificantBits());
+				count++;
+			}
+			
+			buffer.flip();
+			while (buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+			ByteBuffer header = ByteBuffer.allocate(4).putInt(0, count);
+			channel.write(header, 8);
+			channel.force(true);
+		}
+		
+		if (!temporary.renameTo(file)) {
+			throw new IOException("Could not rename " + temporary + " to " + file);
+		}
+	}
+	
+	protected static void putName(@NotNull ByteBuffer buffer, @NotNull String name) {
+		byte[] bytes = name.getBytes(StandardCharsets.US_ASCII);
+		buffer.put(bytes);
+		for (int i = bytes.length; i < NAME_SIZE; i++) {
+			buffer.put((byte) 0);
+		}
+	}
+	
+	protected @NotNull Snapshot load(@NotNull File file, long generation) throws IOException {
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			MappedByteBuffer data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			if (data.capacity() < HEADER_SIZE || data.getInt(0) != MAGIC || data.getInt(4) != VERSION) {
+				throw new IOException("Not an offline player index");
+			}
+			int count = data.getInt(8);
+			if (HEADER_SIZE + (long) count * RECORD_SIZE > data.capacity()) {
+				throw new IOException("The offline player index is truncated");
+			}
+			return new Snapshot(data, count, generation);
+		}
+	}
+	
+	protected @Nullable File findLatestFile() {
+		File latest = null;
+		File[] files = directory.listFiles((dir, name) -> getGeneration(name) >= 0);
+		if (files != null) {
+			for (File file : files) {
+				if (latest == null || getGeneration(file.getName()) > getGeneration(latest.getName())) {
+					latest = file;
+				}
+			}
+		}
+		return latest;
+	}
+	
+	/**
+	 * Deletes the files before a generation. A file still mapped may not be deleted on some systems, it's then deleted on a later merge.
+	 */
+	protected void deleteOldFiles(long generation) {
+		File[] files = directory.listFiles((dir, name) -> getGeneration(name) >= 0 && getGeneration(name) < generation);
+		if (files != null) {
+			for (File file : files) {
+				file.delete();
+			}
+		}
+	}
+	
+	protected static long getGeneration(@NotNull String name) {
+		if (!name.startsWith(FILE_PREFIX) || !name.endsWith(FILE_SUFFIX)) {
+			return -1;
+		}
+		try {
+			return Long.parseLong(name.substring(FILE_PREFIX.length(), name.length() - FILE_SUFFIX.length()));
+		} catch (NumberFormatException e) {
+			return -1;
+		}
+	}
+	
+	/**
+	 * Stops listening to joins and merges the players added since the last file into a new file. Call it when the plugin disables.
+	 */
+	@Override
+	public void close() {
+		HandlerList.unregisterAll(this);
+		this.merge();
+	}
+}
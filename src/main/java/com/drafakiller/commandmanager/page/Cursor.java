@@ -0,0 +1,148 @@
+package com.drafakiller.commandmanager.page;
+
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.ComponentLike;
+import org.bukkit.Bukkit;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.logging.Level;
+
+/**
+ * Position of a sender in a {@link PagedOutput}.
+ * <p>
+ * The rows are read from the source a page at a time, the iterator stays right after the last page read, so the next page continues from there.
+ * Only the last pages read are kept, going back further than them opens the source again at the offset of that page.
+ * <p>
+ * If the rows are {@link AutoCloseable}, they are closed when the source is opened again and when the cursor is closed.
+ */
+public class Cursor {
+	
+	public final int id;
+	public final PagedOutput output;
+	
+	protected Iterator<? extends ComponentLike> rows;
+	
+	/**
+	 * Last pages read, in order, the last one is page {@code lastRead}.
+	 */
+	protected final ArrayDeque<List<Component>> kept = new ArrayDeque<>();
+	protected int lastRead = 0;
+	protected int page = 0;
+	
+	public Cursor(int id, @NotNull PagedOutput output) {
+		this.id = id;
+		this.output = output;
+	}
+	
+	/**
+	 * Returns the current page number, starting at 1, or 0 before the first page.
+	 */
+	public synchronized int getPage() {
+		return page;
+	}
+	
+	public synchronized boolean hasPrevious() {
+		return page > 1;
+	}
+	
+	public synchronized boolean hasNext() {
+		return page < lastRead || (rows != null && rows.hasNext());
+	}
+	
+	/**
+	 * Moves to the next page, reading it from the source if it wasn't yet. Stays on the last page if there are no more rows.
+	 *
+	 * @return the rows of the page
+	 */
+	public synchronized @NotNull List<Component> next() {
+		if (page < lastRead) {
+			page++;
+			return this.getKept(page);
+		}
+		
+		if (rows == null) {
+			rows = output.source.open(lastRead * output.pageSize);
+		}
+		List<Component> read = this.read();
+		if (read.isEmpty() && page > 0) {
+			return this.getKept(page);
+		}
+		this.keep(read);
+		page = ++lastRead;
+		return read;
+	}
+	
+	/**
+	 * Moves to the previous page, opening the source again if it's no longer kept. Stays on the first page.
+	 *
+	 * @return the rows of the page
+	 */
+	public synchronized @NotNull List<Component> previous() {
+		if (page <= 1) {
+			return page == 1 ? this.getKept(page) : this.next();
+		}
+		
+		page--;
+		if (page > lastRead - kept.size()) {
+			return this.getKept(page);
+		}
+		
+		this.closeRows();
+		rows = output.source.open((page - 1) * output.pageSize);
+		kept.clear();
+		List<Component> read = this.read();
+		this.keep(read);
+		lastRead = page;
+		return read;
+	}
+	
+	/**
+	 * Closes the rows opened, if they are {@link AutoCloseable}. Called when the cursor is replaced, closed or expires.
+	 * Reading the next page after opens the source again where it stopped.
+	 */
+	public synchronized void close() {
+		this.closeRows();
+	}
+	
+	protected void closeRows() {
+		if (rows instanceof AutoCloseable) {
+			try {
+				((AutoCloseable) rows).close();
+			} catch (Exception e) {
+				Bukkit.getLogger().log(Level.WARNING, "Couldn't close the rows of a paged output", e);
+			}
+		}
+		rows = null;
+	}
+	
+	protected @NotNull List<Component> read() {
+		List<Component> read = new ArrayList<>(output.pageSize);
+		while (read.size() < output.pageSize && rows.hasNext()) {
+			read.add(rows.next().asComponent());
+		}
+		return read;
+	}
+	
+	protected void keep(@NotNull List<Component> read) {
+		kept.addLast(Collections.unmodifiableList(read));
+		while (kept.size() > output.keptPages) {
+			kept.removeFirst();
+		}
+	}
+	
+	protected @NotNull List<Component> getKept(int number) {
+		int index = 0;
+		int skip = number - (lastRead - kept.size() + 1);
+		for (List<Component> keptPage : kept) {
+			if (index++ == skip) {
+				return keptPage;
+			}
+		}
+		return Collections.emptyList();
+	}
+}
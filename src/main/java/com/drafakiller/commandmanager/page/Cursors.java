@@ -0,0 +1,76 @@
+package com.drafakiller.commandmanager.page;
+
+import com.drafakiller.commandmanager.cache.ExpiringCache;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The {@link Cursor} of each sender, one at a time, a new paged output replaces the previous one.
+ * <p>
+ * Cursors expire when not used for a while, and only a max amount is kept, evicting the least recently used.
+ * Each cursor has an id, so a click on an older list is told apart from the current one.
+ * A cursor leaving, whether replaced, closed, expired or evicted, is {@link Cursor#close() closed}.
+ */
+public class Cursors {
+	
+	protected final ExpiringCache<String, Cursor> cursors;
+	protected final AtomicInteger ids = new AtomicInteger();
+	
+	/**
+	 * @param timeToLive time in milliseconds a cursor is kept after it was last used
+	 * @param maxSize max amount of cursors
+	 */
+	public Cursors(long timeToLive, int maxSize) {
+		this.cursors = new ExpiringCache<String, Cursor>(timeToLive, maxSize).setRemovalListener(Cursor::close);
+	}
+	
+	/**
+	 * Opens a cursor on a paged output for a sender, replacing the previous one.
+	 *
+	 * @param sender sender viewing the output
+	 * @param output the output
+	 * @return the cursor, before the first page
+	 */
+	public @NotNull Cursor open(@NotNull CommandSender sender, @NotNull PagedOutput output) {
+		Cursor cursor = new Cursor(ids.incrementAndGet() & Integer.MAX_VALUE, output);
+		cursors.purge();
+		cursors.put(getKey(sender), cursor);
+		return cursor;
+	}
+	
+	/**
+	 * Returns the cursor of a sender, keeping it for longer.
+	 *
+	 * @param sender sender viewing the output
+	 * @param id id of the cursor, or null for whichever the sender has
+	 * @return the cursor, null if it expired or the id is of another one
+	 */
+	public @Nullable Cursor get(@NotNull CommandSender sender, @Nullable Integer id) {
+		String key = getKey(sender);
+		ExpiringCache.Entry<Cursor> entry = cursors.get(key);
+		if (entry == null || (id != null && entry.value.id != id)) {
+			return null;
+		}
+		cursors.put(key, entry.value);
+		return entry.value;
+	}
+	
+	public boolean has(@NotNull CommandSender sender) {
+		return cursors.get(getKey(sender)) != null;
+	}
+	
+	public void close(@NotNull CommandSender sender) {
+		cursors.remove(getKey(sender));
+	}
+	
+	protected static @NotNull String getKey(@NotNull CommandSender sender) {
+		if (sender instanceof Player) {
+			return ((Player) sender).getUniqueId().toString();
+		}
+		return sender.getName();
+	}
+}
@@ -0,0 +1,56 @@
+package com.drafakiller.commandmanager.page;
+
+import net.kyori.adventure.text.Component;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Output of a paged sub command: the {@link RowSource} of its rows, a title, and how many rows each page shows.
+ */
+public class PagedOutput {
+	
+	public final RowSource source;
+	public @Nullable Component title;
+	public int pageSize = 10;
+	public int keptPages = 3;
+	
+	/**
+	 * @param source source of the rows
+	 */
+	public PagedOutput(@NotNull RowSource source) {
+		this.source = source;
+	}
+	
+	/**
+	 * Sets the title shown above each page, and returns itself for chaining.
+	 *
+	 * @param title title of the list
+	 * @return this object, for chaining
+	 */
+	public @NotNull PagedOutput setTitle(@Nullable Component title) {
+		this.title = title;
+		return this;
+	}
+	
+	/**
+	 * Sets how many rows each page shows, and returns itself for chaining.
+	 *
+	 * @param pageSize amount of rows, 10 by default
+	 * @return this object, for chaining
+	 */
+	public @NotNull PagedOutput setPageSize(int pageSize) {
+		this.pageSize = Math.max(1, pageSize);
+		return this;
+	}
+	
+	/**
+	 * Sets how many of the last pages shown are kept, to go back to them without reading the source again, and returns itself for chaining.
+	 *
+	 * @param keptPages amount of pages, 3 by default
+	 * @return this object, for chaining
+	 */
+	public @NotNull PagedOutput setKeptPages(int keptPages) {
+		this.keptPages = Math.max(1, keptPages);
+		return this;
+	}
+}
@@ -0,0 +1,36 @@
+package com.drafakiller.commandmanager.page;
+
+import net.kyori.adventure.text.ComponentLike;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Lazy source of the rows of a {@link PagedOutput}, read a page at a time.
+ * <p>
+ * Rows are only read when their page is shown, continuing from where the previous page stopped, so the whole list never has to be built or kept.
+ * The source is opened again only when going back further than the pages kept, for example with a database query using an offset.
+ */
+@FunctionalInterface
+public interface RowSource {
+	
+	/**
+	 * Opens the rows, starting at a row.
+	 * If they hold something open, like a database result set, return an iterator that is also {@link AutoCloseable}, the cursor closes it once done with it.
+	 *
+	 * @param offset index of the first row to be read
+	 * @return the rows from the offset onwards
+	 */
+	@NotNull Iterator<? extends ComponentLike> open(int offset);
+	
+	/**
+	 * Returns a source of rows already in a list.
+	 *
+	 * @param rows the rows
+	 * @return the source
+	 */
+	static @NotNull RowSource of(@NotNull List<? extends ComponentLike> rows) {
+		return offset -> rows.listIterator(Math.min(offset, rows.size()));
+	}
+}
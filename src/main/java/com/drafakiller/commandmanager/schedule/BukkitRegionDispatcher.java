@@ -0,0 +1,62 @@
+package com.drafakiller.commandmanager.schedule;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.entity.Entity;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * {@link RegionDispatcher} of servers with a single main thread, where every region is owned by the main thread.
+ */
+public class BukkitRegionDispatcher implements RegionDispatcher {
+	
+	protected final Plugin plugin;
+	
+	public BukkitRegionDispatcher(@NotNull Plugin plugin) {
+		this.plugin = plugin;
+	}
+	
+	@Override
+	public boolean isOwnedByCurrentRegion(@NotNull Entity entity) {
+		return Bukkit.isPrimaryThread();
+	}
+	
+	@Override
+	public boolean isOwnedByCurrentRegion(@NotNull Location location) {
+		return Bukkit.isPrimaryThread();
+	}
+	
+	@Override
+	public boolean isGlobalThread() {
+		return Bukkit.isPrimaryThread();
+	}
+	
+	@Override
+	public void runForEntity(@NotNull Entity entity, @NotNull Runnable task, @Nullable Runnable retired) {
+		this.plugin.getServer().getScheduler().runTask(this.plugin, task);
+	}
+	
+	@Override
+	public void runAt(@NotNull Location location, @NotNull Runnable task) {
+		this.plugin.getServer().getScheduler().runTask(this.plugin, task);
+	}
+	
+	@Override
+	public void runGlobal(@NotNull Runnable task) {
+		this.plugin.getServer().getScheduler().runTask(this.plugin, task);
+	}
+	
+	@Override
+	public void runAsync(@NotNull Runnable task) {
+		this.plugin.getServer().getScheduler().runTaskAsynchronously(this.plugin, task);
+	}
+	
+	@Override
+	public @NotNull RepeatingTask runAtFixedRate(@NotNull Runnable task, long period) {
+		BukkitTask bukkitTask = this.plugin.getServer().getScheduler().runTaskTimer(this.plugin, task, 1, period);
+		return bukkitTask::cancel;
+	}
+}
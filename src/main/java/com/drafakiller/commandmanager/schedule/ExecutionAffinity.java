@@ -0,0 +1,29 @@
+package com.drafakiller.commandmanager.schedule;
+
+/**
+ * Where a {@link com.drafakiller.commandmanager.SubCommand} must run, on servers split into regions with their own threads, like Folia.
+ * On other servers every affinity but {@link #ASYNC} runs on the main thread.
+ */
+public enum ExecutionAffinity {
+	
+	/**
+	 * The region of the sender, for players and other entities. Block senders use the region of the block, the console uses the global region.
+	 */
+	SENDER,
+	
+	/**
+	 * The region of the location given by the sub command's {@code getTargetLocation}, or of the sender if there is none.
+	 */
+	LOCATION,
+	
+	/**
+	 * The global region, for work that doesn't touch any world, like plugin data or server settings.
+	 */
+	GLOBAL,
+	
+	/**
+	 * Any thread other than the server's, for work that doesn't touch the server at all, like database queries.
+	 */
+	ASYNC
+	
+}
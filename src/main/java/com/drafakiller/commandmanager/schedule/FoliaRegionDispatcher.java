@@ -0,0 +1,138 @@
+package com.drafakiller.commandmanager.schedule;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.entity.Entity;
+import org.bukkit.plugin.Plugin;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.function.Consumer;
+
+/**
+ * {@link RegionDispatcher} of regionized servers, like Folia, using their region, entity, global and async schedulers.
+ * <p>
+ * The schedulers are not part of the API this library is built against, so they are found by reflection once, when the dispatcher is created.
+ */
+public class FoliaRegionDispatcher implements RegionDispatcher {
+	
+	protected static final String SCHEDULER_PACKAGE = "io.papermc.paper.threadedregions.scheduler.";
+	
+	protected final Plugin plugin;
+	
+	protected final Object regionScheduler;
+	protected final Object globalScheduler;
+	protected final Object asyncScheduler;
+	
+	protected final Method regionExecute;
+	protected final Method globalExecute;
+	protected final Method globalRunAtFixedRate;
+	protected final Method asyncRunNow;
+	protected final Method entityGetScheduler;
+	protected final Method entityExecute;
+	protected final Method taskCancel;
+	protected final Method ownsEntity;
+	protected final Method ownsLocation;
+	protected final Method isGlobalTickThread;
+	
+	public FoliaRegionDispatcher(@NotNull Plugin plugin) throws ReflectiveOperationException {
+		this.plugin = plugin;
+		
+		Class<?> regionSchedulerClass = Class.forName(SCHEDULER_PACKAGE + "RegionScheduler");
+		Class<?> globalSchedulerClass = Class.forName(SCHEDULER_PACKAGE + "GlobalRegionScheduler");
+		Class<?> asyncSchedulerClass = Class.forName(SCHEDULER_PACKAGE + "AsyncScheduler");
+		Class<?> entitySchedulerClass = Class.forName(SCHEDULER_PACKAGE + "EntityScheduler");
+		Class<?> taskClass = Class.forName(SCHEDULER_PACKAGE + "ScheduledTask");
+		
+		this.regionScheduler = Bukkit.class.getMethod("getRegionScheduler").invoke(null);
+		this.globalScheduler = Bukkit.class.getMethod("getGlobalRegionScheduler").invoke(null);
+		this.asyncScheduler = Bukkit.class.getMethod("getAsyncScheduler").invoke(null);
+		
+		this.regionExecute = regionSchedulerClass.getMethod("execute", Plugin.class, Location.class, Runnable.class);
+		this.globalExecute = globalSchedulerClass.getMethod("execute", Plugin.class, Runnable.class);
+		this.globalRunAtFixedRate = globalSchedulerClass.getMethod("runAtFixedRate", Plugin.class, Consumer.class, long.class, long.class);
+		this.asyncRunNow = asyncSchedulerClass.getMethod("runNow", Plugin.class, Consumer.class);
+		this.entityGetScheduler = Entity.class.getMethod("getScheduler");
+		this.entityExecute = entitySchedulerClass.getMethod("execute", Plugin.class, Runnable.class, Runnable.class, long.class);
+		this.taskCancel = taskClass.getMethod("cancel");
+		this.ownsEntity = Bukkit.class.getMethod("isOwnedByCurrentRegion", Entity.class);
+		this.ownsLocation = Bukkit.class.getMethod("isOwnedByCurrentRegion", Location.class);
+		this.isGlobalTickThread = Bukkit.class.getMethod("isGlobalTickThread");
+	}
+	
+	/**
+	 * Checks if the running server is regionized.
+	 *
+	 * @return true if the server has region schedulers, otherwise false
+	 */
+	public static boolean isSupported() {
+		try {
+			Class.forName("io.papermc.paper.threadedregions.RegionizedServer");
+			return true;
+		} catch (ClassNotFoundException e) {
+			return false;
+		}
+	}
+	
+	protected static Object invoke(@NotNull Method method, Object target, Object... arguments) {
+		try {
+			return method.invoke(target, arguments);
+		} catch (InvocationTargetException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw new IllegalStateException(e.getCause());
+		} catch (IllegalAccessException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+	
+	@Override
+	public boolean isOwnedByCurrentRegion(@NotNull Entity entity) {
+		return (Boolean) invoke(ownsEntity, null, entity);
+	}
+	
+	@Override
+	public boolean isOwnedByCurrentRegion(@NotNull Location location) {
+		return (Boolean) invoke(ownsLocation, null, location);
+	}
+	
+	@Override
+	public boolean isGlobalThread() {
+		return (Boolean) invoke(isGlobalTickThread, null);
+	}
+	
+	@Override
+	public void runForEntity(@NotNull Entity entity, @NotNull Runnable task, @Nullable Runnable retired) {
+		Object scheduled = invoke(entityExecute, invoke(entityGetScheduler, entity), this.plugin, task, retired, 1L);
+		// Folia runs neither task when the entity was already removed, and only says so by returning false.
+		if (Boolean.FALSE.equals(scheduled) && retired != null) {
+			retired.run();
+		}
+	}
+	
+	@Override
+	public void runAt(@NotNull Location location, @NotNull Runnable task) {
+		invoke(regionExecute, regionScheduler, this.plugin, location, task);
+	}
+	
+	@Override
+	public void runGlobal(@NotNull Runnable task) {
+		invoke(globalExecute, globalScheduler, this.plugin, task);
+	}
+	
+	@Override
+	public void runAsync(@NotNull Runnable task) {
+		Consumer<Object> consumer = scheduledTask -> task.run();
+		invoke(asyncRunNow, asyncScheduler, this.plugin, consumer);
+	}
+	
+	@Override
+	public @NotNull RepeatingTask runAtFixedRate(@NotNull Runnable task, long period) {
+		Consumer<Object> consumer = scheduledTask -> task.run();
+		Object scheduledTask = invoke(globalRunAtFixedRate, globalScheduler, this.plugin, consumer, 1L, period);
+		return () -> invoke(taskCancel, scheduledTask);
+	}
+}
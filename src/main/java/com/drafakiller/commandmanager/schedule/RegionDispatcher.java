@@ -0,0 +1,80 @@
+package com.drafakiller.commandmanager.schedule;
+
+import org.bukkit.Location;
+import org.bukkit.entity.Entity;
+import org.bukkit.plugin.Plugin;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.logging.Level;
+
+/**
+ * Runs tasks on the thread that owns an entity, a location, the global region or on an async thread.
+ * <p>
+ * On regionized servers, like Folia, there is no single main thread and each region of a world ticks on its own thread.
+ * Use {@link #create(Plugin)} to get the dispatcher for the running server: {@link FoliaRegionDispatcher} on regionized servers, otherwise {@link BukkitRegionDispatcher}.
+ */
+public interface RegionDispatcher {
+	
+	/**
+	 * A task running repeatedly, until cancelled.
+	 */
+	interface RepeatingTask {
+		void cancel();
+	}
+	
+	boolean isOwnedByCurrentRegion(@NotNull Entity entity);
+	
+	boolean isOwnedByCurrentRegion(@NotNull Location location);
+	
+	boolean isGlobalThread();
+	
+	/**
+	 * Runs a task on the region of an entity, following it if it moves. The task is not run if the entity is removed first.
+	 */
+	default void runForEntity(@NotNull Entity entity, @NotNull Runnable task) {
+		this.runForEntity(entity, task, null);
+	}
+	
+	/**
+	 * Runs a task on the region of an entity, following it if it moves. If the entity is removed first, the retired task is run instead, on an unspecified thread.
+	 *
+	 * @param entity entity the task follows
+	 * @param task task to be run
+	 * @param retired task run instead when the entity was removed, or null
+	 */
+	void runForEntity(@NotNull Entity entity, @NotNull Runnable task, @Nullable Runnable retired);
+	
+	void runAt(@NotNull Location location, @NotNull Runnable task);
+	
+	void runGlobal(@NotNull Runnable task);
+	
+	void runAsync(@NotNull Runnable task);
+	
+	/**
+	 * Runs a task on the global region every period of ticks, starting on the next tick.
+	 *
+	 * @param task task to be run
+	 * @param period ticks between each run
+	 * @return the task, to be cancelled
+	 */
+	@NotNull RepeatingTask runAtFixedRate(@NotNull Runnable task, long period);
+	
+	/**
+	 * Returns the dispatcher for the running server.
+	 *
+	 * @param plugin plugin the tasks belong to
+	 * @return the dispatcher
+	 */
+	static @NotNull RegionDispatcher create(@NotNull Plugin plugin) {
+		if (FoliaRegionDispatcher.isSupported()) {
+			try {
+				return new FoliaRegionDispatcher(plugin);
+			} catch (ReflectiveOperationException e) {
+				plugin.getLogger().log(Level.WARNING, "Could not use the region schedulers, falling back to the main thread", e);
+			}
+		}
+		return new BukkitRegionDispatcher(plugin);
+	}
+	
+}
@@ -0,0 +1,231 @@
+package com.drafakiller.commandmanager.schedule;
+
+import com.drafakiller.commandmanager.message.Messages;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.logging.Level;
+
+/**
+ * Runs the {@link WorkUnit}s of budgeted sub commands on the main thread, spending at most a budget of milliseconds each tick.
+ * <p>
+ * Every sender has its own queue, and the queues take turns running one step at a time, so a sender with many commands queued can't hold back the others.
+ * While there is no work queued the scheduler doesn't run.
+ * <p>
+ * Work can be queued from any thread. The scheduler ticks on the global region, work queued with a {@link StepRunner} has its steps run by it instead, like on the region of the sender,
+ * which on regionized servers sends each step to that region, so a sender's work there advances one step per tick.
+ */
+public class TickScheduler implements Runnable {
+	
+	/**
+	 * Runs the steps of a work on the thread the work has to run on.
+	 */
+	@FunctionalInterface
+	public interface StepRunner {
+		
+		/**
+		 * Runs a step, right away if the current thread can, otherwise on the thread it has to run on.
+		 *
+		 * @param step step to be run
+		 * @param retired task run instead of the step if it can't run anymore, like when the sender was removed
+		 */
+		void run(@NotNull Runnable step, @NotNull Runnable retired);
+		
+	}
+	
+	/**
+	 * A queued work and the runner of its steps.
+	 */
+	protected static final class Job {
+		public final @NotNull WorkUnit work;
+		public final @Nullable StepRunner runner;
+		
+		public Job(@NotNull WorkUnit work, @Nullable StepRunner runner) {
+			this.work = work;
+			this.runner = runner;
+		}
+	}
+	
+	protected final Plugin plugin;
+	protected final Messages messages;
+	protected final RegionDispatcher dispatcher;
+	protected long budget = 5_000_000L;
+	
+	protected final HashMap<Object, ArrayDeque<Job>> queues = new HashMap<>();
+	protected final ArrayDeque<Object> turns = new ArrayDeque<>();
+	protected RegionDispatcher.RepeatingTask task;
+	
+	public TickScheduler(@NotNull Plugin plugin, @NotNull Messages messages, @NotNull RegionDispatcher dispatcher) {
+		this.plugin = plugin;
+		this.messages = messages;
+		this.dispatcher = dispatcher;
+	}
+	
+	/**
+	 * Sets how long the scheduler can run each tick, and returns itself for chaining.
+	 * At least one step is run each tick, even if it takes longer than the budget.
+	 *
+	 * @param milliseconds budget of each tick
+	 * @return this object, for chaining
+	 */
+	public @NotNull TickScheduler setBudget(double milliseconds) {
+		this.budget = (long) (milliseconds * 1_000_000L);
+		return this;
+	}
+	
+	public double getBudget() {
+		return budget / 1_000_000D;
+	}
+	
+	/**
+	 * Returns the key of the queue of a sender, entities by unique id and others by name.
+	 */
+	protected @NotNull Object getQueueKey(@NotNull CommandSender sender) {
+		if (sender instanceof Entity) {
+			return ((Entity) sender).getUniqueId();
+		}
+		return sender.getName();
+	}
+	
+	/**
+	 * Queues work for a sender, it will start running on the next tick, on the thread of the scheduler.
+	 *
+	 * @param sender sender the work belongs to
+	 * @param work work to be run
+	 * @return position of the work in the queue, 0 if it's the next to run
+	 */
+	public int schedule(@NotNull CommandSender sender, @NotNull WorkUnit work) {
+		return this.schedule(sender, work, null);
+	}
+	
+	/**
+	 * Queues work for a sender, it will start running on the next tick, with its steps run by the given runner.
+	 *
+	 * @param sender sender the work belongs to
+	 * @param work work to be run
+	 * @param runner runner of the steps, or null to run them on the thread of the scheduler
+	 * @return position of the work in the queue, 0 if it's the next to run
+	 */
+	public int schedule(@NotNull CommandSender sender, @NotNull WorkUnit work, @Nullable StepRunner runner) {
+		Object key = this.getQueueKey(sender);
+		int position;
+		synchronized (this) {
+			ArrayDeque<Job> queue = queues.get(key);
+			if (queue == null) {
+				queue = new ArrayDeque<>();
+				queues.put(key, queue);
+				turns.add(key);
+			}
+			queue.add(new Job(work, runner));
+			position = this.getPosition(key, queue.size() - 1);
+			
+			if (task == null) {
+				task = this.dispatcher.runAtFixedRate(this, 1);
+			}
+		}
+		
+		if (position > 0) {
+			this.sendPosition(sender, position);
+		}
+		return position;
+	}
+	
+	/**
+	 * Returns how many works run before the one at the given index of a sender's queue.
+	 * As the queues take turns, every other queue runs up to the same amount of works before it.
+	 */
+	protected int getPosition(@NotNull Object key, int index) {
+		int position = index;
+		ArrayDeque<Job> own = queues.get(key);
+		for (ArrayDeque<Job> queue : queues.values()) {
+			if (queue != own) {
+				position += Math.min(queue.size(), index + 1);
+			}
+		}
+		return position;
+	}
+	
+	protected void sendPosition(@NotNull CommandSender sender, int position) {
+		if (sender instanceof Player) {
+			Player player = (Player) sender;
+			player.sendMessage(this.messages.render(player, "schedule.queued", this.plugin.getName(), position));
+		}
+	}
+	
+	/**
+	 * Returns the amount of works waiting or running.
+	 *
+	 * @return queued works
+	 */
+	public synchronized int size() {
+		int size = 0;
+		for (ArrayDeque<Job> queue : queues.values()) {
+			size += queue.size();
+		}
+		return size;
+	}
+	
+	@Override
+	public void run() {
+		long deadline = System.nanoTime() + budget;
+		
+		do {
+			Object key;
+			Job job;
+			synchronized (this) {
+				key = turns.poll();
+				if (key == null) {
+					break;
+				}
+				job = queues.get(key).peek();
+			}
+			
+			if (job.runner == null) {
+				this.finish(key, this.step(job.work));
+			} else {
+				// The queue takes no more turns until the step comes back, so a work never runs two steps at once.
+				job.runner.run(() -> this.finish(key, this.step(job.work)), () -> this.finish(key, false));
+			}
+		} while (System.nanoTime() < deadline);
+		
+		synchronized (this) {
+			if (queues.isEmpty() && task != null) {
+				task.cancel();
+				task = null;
+			}
+		}
+	}
+	
+	/**
+	 * Runs a step of a work, a step failing ends the work.
+	 */
+	protected boolean step(@NotNull WorkUnit work) {
+		try {
+			return work.step();
+		} catch (Throwable e) {
+			this.plugin.getLogger().log(Level.WARNING, "Budgeted command work failed", e);
+			return false;
+		}
+	}
+	
+	/**
+	 * Gives the queue its turn back after a step of its first work, removing the work if it's done.
+	 */
+	protected synchronized void finish(@NotNull Object key, boolean more) {
+		ArrayDeque<Job> queue = queues.get(key);
+		if (!more) {
+			queue.poll();
+		}
+		if (queue.isEmpty()) {
+			queues.remove(key);
+		} else {
+			turns.add(key);
+		}
+	}
+}
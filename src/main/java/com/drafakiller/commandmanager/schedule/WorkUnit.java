@@ -0,0 +1,18 @@
+package com.drafakiller.commandmanager.schedule;
+
+/**
+ * Resumable work of a budgeted {@link com.drafakiller.commandmanager.SubCommand}, run by the {@link TickScheduler} a small step at a time.
+ * <p>
+ * Each step should be short, a few blocks or inventories, and keep its progress in the object so the next step continues where the last one stopped.
+ */
+@FunctionalInterface
+public interface WorkUnit {
+	
+	/**
+	 * Runs the next step of the work, on the main thread, or on regionized servers on the thread given by the affinity of the sub command.
+	 *
+	 * @return true if there is more work left, false when done
+	 */
+	boolean step();
+	
+}
@@ -0,0 +1,272 @@
+package com.drafakiller.commandmanager.selector;
+
+import org.bukkit.Bukkit;
+import org.bukkit.GameMode;
+import org.bukkit.Location;
+import org.bukkit.command.BlockCommandSender;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A target selector for players, like {@code @a}, {@code @p}, {@code @r} and {@code @s}, used by the {@code %player%} keyword.
+ * <p>
+ * Filters are written between brackets, separated by commas, for example {@code @a[distance=..50,gamemode=!spectator,limit=3]}.
+ * Accepted filters: {@code distance} (a range like {@code 5}, {@code ..50}, {@code 10..} or {@code 5..10}), {@code limit}, {@code sort} ({@code nearest}, {@code furthest}, {@code random} or {@code arbitrary}),
+ * {@code name} and {@code gamemode}, these last two can be negated with {@code !}.
+ * <p>
+ * Selecting doesn't go through every online player when it can be avoided: an exact name is a single lookup, a max distance only checks the players near the sender,
+ * and sorting by distance only checks the players in the sender's world. Distances are measured from the sender, so senders without a location, like the console,
+ * can't use them, neither {@code @p}.
+ * <p>
+ * Parsed selectors are kept, so the same selector is only parsed once.
+ */
+public class PlayerSelector {
+	
+	public enum Type {
+		ALL, NEAREST, RANDOM, SELF
+	}
+	
+	public enum Sort {
+		ARBITRARY, NEAREST, FURTHEST, RANDOM
+	}
+	
+	/**
+	 * Selectors without filters, suggested on tab completion.
+	 */
+	public static final String[] SELECTORS = new String[] { "@a", "@p", "@r", "@s" };
+	
+	protected static final int CACHE_LIMIT = 256;
+	protected static final ConcurrentHashMap<String, PlayerSelector> cache = new ConcurrentHashMap<>();
+	protected static final PlayerSelector INVALID = new PlayerSelector(Type.ALL);
+	
+	public final Type type;
+	protected double minDistance = -1;
+	protected double maxDistance = -1;
+	protected int limit = Integer.MAX_VALUE;
+	protected Sort sort = Sort.ARBITRARY;
+	protected String name;
+	protected boolean excludeName;
+	protected GameMode gamemode;
+	protected boolean excludeGamemode;
+	
+	protected PlayerSelector(@NotNull Type type) {
+		this.type = type;
+		if (type == Type.NEAREST) {
+			this.sort = Sort.NEAREST;
+			this.limit = 1;
+		} else if (type == Type.RANDOM) {
+			this.sort = Sort.RANDOM;
+			this.limit = 1;
+		}
+	}
+	
+	/**
+	 * Checks if a text is meant to be a selector, starting with {@code @}.
+	 *
+	 * @param text text to be checked
+	 * @return boolean result
+	 */
+	public static boolean isSelector(@NotNull String text) {
+		return text.length() > 1 && text.charAt(0) == '@';
+	}
+	
+	/**
+	 * Parses a selector, or returns the one parsed before.
+	 *
+	 * @param text selector to be parsed
+	 * @return the selector, otherwise null if it's not valid
+	 */
+	public static @Nullable PlayerSelector parse(@NotNull String text) {
+		PlayerSelector selector = cache.get(text);
+		if (selector == null) {
+			selector = parseSelector(text);
+			if (selector == null) {
+				selector = INVALID;
+			}
+			if (cache.size() >= CACHE_LIMIT) {
+				cache.clear();
+			}
+			cache.put(text, selector);
+		}
+		return selector != INVALID ? selector : null;
+	}
+	
+	protected static @Nullable PlayerSelector parseSelector(@NotNull String text) {
+		if (!isSelector(text)) {
+			return null;
+		}
+		
+		PlayerSelector selector;
+		switch (text.charAt(1)) {
+			case 'a':
+				selector = new PlayerSelector(Type.ALL);
+				break;
+			case 'p':
+				selector = new PlayerSelector(Type.NEAREST);
+				break;
+			case 'r':
+				selector = new PlayerSelector(Type.RANDOM);
+				break;
+			case 's':
+				selector = new PlayerSelector(Type.SELF);
+				break;
+			default:
+				return null;
+		}
+		
+		if (text.length() == 2) {
+			return selector;
+		}
+		if (text.charAt(2) != '[' || !text.endsWith("]")) {
+			return null;
+		}
+		
+		String filters = text.substring(3, text.length() - 1);
+		if (filters.isEmpty()) {
+			return selector;
+		}
+		for (String filter : filters.split(",", -1)) {
+			int separator = filter.indexOf('=');
+			if (separator <= 0 || !selector.setFilter(filter.substring(0, separator).trim(), filter.substring(separator + 1).trim())) {
+				return null;
+			}
+		}
+		return selector;
+	}
+	
+	/**
+	 * Sets a filter of the selector, returns false if the filter or its value is not valid.
+	 */
+	protected boolean setFilter(@NotNull String key, @NotNull String value) {
+		try {
+			switch (key) {
+				case "distance":
+					int range = value.indexOf("..");
+					if (range < 0) {
+						minDistance = maxDistance = Double.parseDouble(value);
+					} else {
+						String min = value.substring(0, range);
+						String max = value.substring(range + 2);
+						if (min.isEmpty() && max.isEmpty()) {
+							return false;
+						}
+						minDistance = min.isEmpty() ? 0 : Double.parseDouble(min);
+						maxDistance = max.isEmpty() ? -1 : Double.parseDouble(max);
+					}
+					return minDistance >= 0 && (maxDistance < 0 || maxDistance >= minDistance);
+				case "limit":
+					limit = Integer.parseInt(value);
+					return limit > 0 && type != Type.SELF;
+				case "sort":
+					sort = Sort.valueOf(value.toUpperCase(Locale.ROOT));
+					return type != Type.SELF;
+				case "name":
+					excludeName = value.startsWith("!");
+					name = excludeName ? value.substring(1) : value;
+					return !name.isEmpty();
+				case "gamemode":
+					excludeGamemode = value.startsWith("!");
+					gamemode = GameMode.valueOf((excludeGamemode ? value.substring(1) : value).toUpperCase(Locale.ROOT));
+					return true;
+				default:
+					return false;
+			}
+		} catch (IllegalArgumentException e) {
+			return false;
+		}
+	}
+	
+	/**
+	 * Returns the location distances are measured from, otherwise null if the sender has none.
+	 */
+	protected static @Nullable Location getOrigin(@NotNull CommandSender sender) {
+		if (sender instanceof Entity) {
+			return ((Entity) sender).getLocation();
+		}
+		if (sender instanceof BlockCommandSender) {
+			return ((BlockCommandSender) sender).getBlock().getLocation();
+		}
+		return null;
+	}
+	
+	protected boolean needsOrigin() {
+		return minDistance >= 0 || maxDistance >= 0 || sort == Sort.NEAREST || sort == Sort.FURTHEST;
+	}
+	
+	/**
+	 * Returns the players selected for a sender.
+	 *
+	 * @param sender sender using the selector
+	 * @return the players selected, empty if none
+	 */
+	public @NotNull List<Player> select(@NotNull CommandSender sender) {
+		Location origin = getOrigin(sender);
+		if (this.needsOrigin() && origin == null) {
+			return Collections.emptyList();
+		}
+		
+		Collection<? extends Player> candidates;
+		if (type == Type.SELF) {
+			candidates = sender instanceof Player ? Collections.singletonList((Player) sender) : Collections.<Player>emptyList();
+		} else if (name != null && !excludeName) {
+			Player player = Bukkit.getPlayerExact(name);
+			candidates = player != null ? Collections.singletonList(player) : Collections.<Player>emptyList();
+		} else if (maxDistance >= 0) {
+			candidates = origin.getWorld().getNearbyPlayers(origin, maxDistance);
+		} else if (origin != null && this.needsOrigin()) {
+			candidates = origin.getWorld().getPlayers();
+		} else {
+			candidates = Bukkit.getOnlinePlayers();
+		}
+		
+		List<Player> players = new ArrayList<>();
+		for (Player player : candidates) {
+			if (this.matches(player, origin)) {
+				players.add(player);
+			}
+		}
+		
+		if (sort == Sort.NEAREST || sort == Sort.FURTHEST) {
+			Comparator<Player> distance = Comparator.comparingDouble(player -> player.getLocation().distanceSquared(origin));
+			players.sort(sort == Sort.NEAREST ? distance : distance.reversed());
+		} else if (sort == Sort.RANDOM) {
+			Collections.shuffle(players);
+		}
+		
+		if (players.size() > limit) {
+			return players.subList(0, limit);
+		}
+		return players;
+	}
+	
+	protected boolean matches(@NotNull Player player, @Nullable Location origin) {
+		if (name != null && player.getName().equals(name) == excludeName) {
+			return false;
+		}
+		if (gamemode != null && (player.getGameMode() == gamemode) == excludeGamemode) {
+			return false;
+		}
+		if (this.needsOrigin()) {
+			Location location = player.getLocation();
+			if (origin == null || location.getWorld() != origin.getWorld()) {
+				return false;
+			}
+			double distance = location.distanceSquared(origin);
+			if ((minDistance > 0 && distance < minDistance * minDistance) || (maxDistance >= 0 && distance > maxDistance * maxDistance)) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
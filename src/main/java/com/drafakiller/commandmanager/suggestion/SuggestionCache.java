@@ -0,0 +1,127 @@
+package com.drafakiller.commandmanager.suggestion;
+
+import com.drafakiller.commandmanager.cache.ExpiringCache;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Tab completion options of keywords given by {@link SuggestionProvider}s, kept by keyword and prefix.
+ * <p>
+ * Tab completion never waits for a provider: options are always answered from the cache, and missing or old ones are asked to the provider in the background, to be used on the next key typed.
+ * While a prefix was never asked, the options of the longest shorter prefix already known are answered instead, the manager then filters them by what was typed.
+ */
+public class SuggestionCache {
+	
+	protected final Logger logger;
+	protected final ConcurrentHashMap<String, SuggestionProvider> providers = new ConcurrentHashMap<>();
+	protected final ExpiringCache<String, List<String>> options;
+	protected final Set<String> loading = ConcurrentHashMap.newKeySet();
+	
+	/**
+	 * @param timeToLive time in milliseconds the options are fresh, after that they are asked again
+	 * @param staleTime time in milliseconds old options can still be answered while asked again
+	 * @param maxSize max amount of prefixes kept
+	 * @param logger logger to report failing providers to
+	 */
+	public SuggestionCache(long timeToLive, long staleTime, int maxSize, @NotNull Logger logger) {
+		this.logger = logger;
+		this.options = new ExpiringCache<String, List<String>>(timeToLive, maxSize).setStaleTime(staleTime);
+	}
+	
+	/**
+	 * Registers the provider of a keyword, replacing the previous one, and returns itself for chaining.
+	 *
+	 * @param keyword keyword, like {@code %warp%}
+	 * @param provider provider of the options
+	 * @return this object, for chaining
+	 */
+	public @NotNull SuggestionCache register(@NotNull String keyword, @NotNull SuggestionProvider provider) {
+		providers.put(keyword, provider);
+		this.invalidate();
+		return this;
+	}
+	
+	public boolean hasProvider(@NotNull String keyword) {
+		return providers.containsKey(keyword);
+	}
+	
+	/**
+	 * Returns the known options of a keyword for what was typed, asking the provider in the background if they are missing or old.
+	 *
+	 * @param keyword keyword of the argument
+	 * @param argument what was typed of the argument
+	 * @return the options known, empty if none yet
+	 */
+	public @NotNull List<String> get(@NotNull String keyword, @NotNull String argument) {
+		SuggestionProvider provider = providers.get(keyword);
+		if (provider == null) {
+			return Collections.emptyList();
+		}
+		String prefix = argument.toLowerCase(Locale.ROOT);
+		
+		ExpiringCache.Entry<List<String>> entry = options.get(getKey(keyword, prefix));
+		if (entry != null) {
+			if (options.shouldRefresh(entry)) {
+				this.load(keyword, prefix, provider);
+			}
+			return entry.value;
+		}
+		
+		this.load(keyword, prefix, provider);
+		for (int length = prefix.length() - 1; length >= 0; length--) {
+			entry = options.get(getKey(keyword, prefix.substring(0, length)));
+			if (entry != null) {
+				return entry.value;
+			}
+		}
+		return Collections.emptyList();
+	}
+	
+	protected static @NotNull String getKey(@NotNull String keyword, @NotNull String prefix) {
+		return keyword + '\0' + prefix;
+	}
+	
+	/**
+	 * Asks the provider for the options of a prefix, unless already asked and not answered yet.
+	 */
+	protected void load(@NotNull String keyword, @NotNull String prefix, @NotNull SuggestionProvider provider) {
+		String key = getKey(keyword, prefix);
+		if (!loading.add(key)) {
+			return;
+		}
+		
+		CompletableFuture<List<String>> future;
+		try {
+			future = provider.suggest(prefix);
+		} catch (Throwable e) {
+			loading.remove(key);
+			logger.log(Level.WARNING, "Suggestion provider of " + keyword + " failed", e);
+			return;
+		}
+		
+		future.whenComplete((result, error) -> {
+			loading.remove(key);
+			if (error != null) {
+				logger.log(Level.WARNING, "Suggestion provider of " + keyword + " failed", error);
+			} else if (result != null) {
+				options.put(key, Collections.unmodifiableList(new ArrayList<>(result)));
+			}
+		});
+	}
+	
+	/**
+	 * Removes every option kept, for when the data changed.
+	 */
+	public void invalidate() {
+		options.clear();
+	}
+}
@@ -0,0 +1,24 @@
+package com.drafakiller.commandmanager.suggestion;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Tab completion options of an unofficial keyword, like {@code %warp%} or {@code %kit%}, which may take a while to be known, for example read from a database.
+ * <p>
+ * Registered in the {@link SuggestionCache} of the manager, which only asks for them in the background and answers tab completions from what it already has.
+ */
+@FunctionalInterface
+public interface SuggestionProvider {
+	
+	/**
+	 * Returns the options for an argument being typed. Can be completed on any thread.
+	 *
+	 * @param prefix what was typed of the argument, in lowercase
+	 * @return the options, when known
+	 */
+	@NotNull CompletableFuture<List<String>> suggest(@NotNull String prefix);
+	
+}
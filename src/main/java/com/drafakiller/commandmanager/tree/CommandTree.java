@@ -0,0 +1,85 @@
+package com.drafakiller.commandmanager.tree;
+
+import com.drafakiller.commandmanager.SubCommand;
+import org.bukkit.command.CommandSender;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Snapshot of the top level sub commands of a manager, with the lookup of their names and aliases.
+ * <p>
+ * A snapshot never changes, adding or reloading sub commands builds a new one and swaps it in, so a command being dispatched or tab completed keeps reading the one it started with.
+ */
+public final class CommandTree {
+	
+	public static final CommandTree EMPTY = new CommandTree(Collections.emptyList());
+	
+	/**
+	 * Top level sub commands, in order.
+	 */
+	public final List<SubCommand> subcommands;
+	
+	/**
+	 * Sub commands by name and alias, in order, as sub commands with the same name can be told apart by their permission.
+	 */
+	protected final HashMap<String, List<SubCommand>> lookup;
+	
+	public CommandTree(@NotNull Collection<SubCommand> subcommands) {
+		this.subcommands = Collections.unmodifiableList(new ArrayList<>(subcommands));
+		this.lookup = new HashMap<>(this.subcommands.size() * 2);
+		
+		for (SubCommand subcommand : this.subcommands) {
+			this.index(subcommand.name, subcommand);
+			for (String alias : subcommand.aliases) {
+				this.index(alias, subcommand);
+			}
+		}
+	}
+	
+	protected void index(@NotNull String argument, @NotNull SubCommand subcommand) {
+		List<SubCommand> matches = lookup.computeIfAbsent(argument, key -> new ArrayList<>(1));
+		if (matches.isEmpty() || matches.get(matches.size() - 1) != subcommand) {
+			matches.add(subcommand);
+		}
+	}
+	
+	/**
+	 * Returns the first sub command with a name or alias.
+	 *
+	 * @param argument name or alias
+	 * @return the sub command, otherwise null
+	 */
+	public @Nullable SubCommand get(@NotNull String argument) {
+		List<SubCommand> matches = lookup.get(argument);
+		return matches != null ? matches.get(0) : null;
+	}
+	
+	/**
+	 * Returns the first sub command with a name or alias the sender has permission to, like the list was searched in order.
+	 *
+	 * @param argument name or alias
+	 * @param sender sender to be checked
+	 * @return the sub command, otherwise null
+	 */
+	public @Nullable SubCommand get(@NotNull String argument, @NotNull CommandSender sender) {
+		List<SubCommand> matches = lookup.get(argument);
+		if (matches != null) {
+			for (SubCommand subcommand : matches) {
+				if (subcommand.senderHasPermission(sender)) {
+					return subcommand;
+				}
+			}
+		}
+		return null;
+	}
+	
+	public int size() {
+		return subcommands.size();
+	}
+}
@@ -0,0 +1,667 @@
+package com.drafakiller.commandmanager.tree;
+
+import com.drafakiller.commandmanager.CommandManager;
+import com.drafakiller.commandmanager.SubCommand;
+import com.drafakiller.commandmanager.SubCommandResult;
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * A read-only tree of sub commands kept in flat arrays, for very large trees generated from configuration, like one node per warp, kit or region.
+ * <p>
+ * Instead of a {@link SubCommand} object per node, each node is an index into arrays: its name, info and permission are ids into one sorted pool of unique texts,
+ * its aliases a range of a single array, and its usage an id into a table of unique usages, made of unique rows.
+ * The children of a node are next to each other, and a hash table of {@code (parent, name)} pairs finds the child matching an argument.
+ * <p>
+ * The nodes are run by {@code handler} sub commands, shared by many nodes, which get the node matched from {@link SubCommandResult#node}.
+ * Set the tree with {@link CommandManager#setCompactTree(CompactCommandTree)}, commands and tab completion run directly on it when no regular sub command matches.
+ * <p>
+ * Build it with a {@link Builder}, or from existing sub commands with {@link #from(Collection)}.
+ */
+public class CompactCommandTree {
+	
+	/**
+	 * The root node, parent of the top level nodes.
+	 */
+	public static final int ROOT = 0;
+	
+	protected static final byte ACCEPT_OVERFLOWS = 1;
+	protected static final byte ACCEPT_SELECTORS = 2;
+	
+	protected static final String[][] NO_USAGE = new String[0][];
+	
+	/**
+	 * Unique texts, sorted, so a text's id is found by binary search.
+	 */
+	protected final String[] strings;
+	
+	protected final int[] names;
+	protected final int[] infos;
+	protected final int[] permissions;
+	protected final byte[] flags;
+	protected final int[] handlers;
+	protected final SubCommand[] handlerTable;
+	
+	/**
+	 * Children of node {@code n} are the nodes from {@code childStart[n]} to {@code childStart[n] + childCount[n]}.
+	 */
+	protected final int[] childStart;
+	protected final int[] childCount;
+	
+	/**
+	 * Aliases of node {@code n} are the ids from {@code aliasStart[n]} to {@code aliasStart[n + 1]} of {@code aliases}.
+	 */
+	protected final int[] aliasStart;
+	protected final int[] aliases;
+	
+	/**
+	 * Usage of each node, an index of {@code usageTable}, -1 for none. Each usage is a list of indexes of {@code rows}.
+	 */
+	protected final int[] usages;
+	protected final int[][] usageTable;
+	protected final String[][] rows;
+	
+	/**
+	 * Open addressing table of {@code (parent << 32) | text id} to the child with that name or alias, -1 where empty.
+	 */
+	protected final long[] edgeKeys;
+	protected final int[] edgeNodes;
+	
+	protected CompactCommandTree(@NotNull Builder builder) {
+		int size = builder.nodes.size();
+		
+		TreeSet<String> texts = new TreeSet<>();
+		for (Builder.Node node : builder.nodes) {
+			texts.add(node.name);
+			texts.addAll(node.aliases);
+			if (node.info != null) {
+				texts.add(node.info);
+			}
+			if (node.permission != null) {
+				texts.add(node.permission);
+			}
+			for (String[] row : node.usage) {
+				texts.addAll(Arrays.asList(row));
+			}
+		}
+		this.strings = texts.toArray(new String[0]);
+		
+		// Nodes are laid out breadth first, so the children of a node are next to each other.
+		int[] order = new int[size];
+		int[] position = new int[size];
+		ArrayDeque<Integer> queue = new ArrayDeque<>();
+		queue.add(ROOT);
+		int laid = 0;
+		while (!queue.isEmpty()) {
+			int index = queue.poll();
+			order[laid] = index;
+			position[index] = laid++;
+			queue.addAll(builder.nodes.get(index).children);
+		}
+		
+		this.names = new int[size];
+		this.infos = new int[size];
+		this.permissions = new int[size];
+		this.flags = new byte[size];
+		this.handlers = new int[size];
+		this.childStart = new int[size];
+		this.childCount = new int[size];
+		this.aliasStart = new int[size + 1];
+		this.usages = new int[size];
+		
+		IdentityHashMap<SubCommand, Integer> handlerIds = new IdentityHashMap<>();
+		List<SubCommand> handlerList = new ArrayList<>();
+		HashMap<List<String>, Integer> rowIds = new HashMap<>();
+		List<String[]> rowList = new ArrayList<>();
+		HashMap<List<Integer>, Integer> usageIds = new HashMap<>();
+		List<int[]> usageList = new ArrayList<>();
+		int aliasCount = 0;
+		int edgeCount = 0;
+		
+		for (int i = 0; i < size; i++) {
+			Builder.Node node = builder.nodes.get(order[i]);
+			names[i] = this.getStringId(node.name);
+			infos[i] = node.info != null ? this.getStringId(node.info) : -1;
+			permissions[i] = node.permission != null ? this.getStringId(node.permission) : -1;
+			flags[i] = (byte) ((node.acceptOverflows ? ACCEPT_OVERFLOWS : 0) | (node.acceptSelectors ? ACCEPT_SELECTORS : 0));
+			
+			if (node.handler != null) {
+				Integer id = handlerIds.get(node.handler);
+				if (id == null) {
+					id = handlerList.size();
+					handlerIds.put(node.handler, id);
+					handlerList.add(node.handler);
+				}
+				handlers[i] = id;
+			} else {
+				handlers[i] = -1;
+			}
+			
+			childStart[i] = node.children.isEmpty() ? 0 : position[node.children.get(0)];
+			childCount[i] = node.children.size();
+			aliasCount += node.aliases.size();
+			edgeCount += 1 + node.aliases.size();
+			
+			if (node.usage.length > 0) {
+				List<Integer> rowsOfUsage = new ArrayList<>(node.usage.length);
+				for (String[] row : node.usage) {
+					List<String> key = Arrays.asList(row);
+					Integer rowId = rowIds.get(key);
+					if (rowId == null) {
+						rowId = rowList.size();
+						String[] pooled = new String[row.length];
+						for (int j = 0; j < row.length; j++) {
+							pooled[j] = strings[this.getStringId(row[j])];
+						}
+						rowIds.put(Arrays.asList(pooled), rowId);
+						rowList.add(pooled);
+					}
+					rowsOfUsage.add(rowId);
+				}
+				Integer usageId = usageIds.get(rowsOfUsage);
+				if (usageId == null) {
+					usageId = usageList.size();
+					usageIds.put(rowsOfUsage, usageId);
+					int[] usage = new int[rowsOfUsage.size()];
+					for (int j = 0; j < usage.length; j++) {
+						usage[j] = rowsOfUsage.get(j);
+					}
+					usageList.add(usage);
+				}
+				usages[i] = usageId;
+			} else {
+				usages[i] = -1;
+			}
+		}
+		
+		this.handlerTable = handlerList.toArray(new SubCommand[0]);
+		this.rows = rowList.toArray(new String[0][]);
+		this.usageTable = usageList.toArray(new int[0][]);
+		
+		this.aliases = new int[aliasCount];
+		int alias = 0;
+		for (int i = 0; i < size; i++) {
+			aliasStart[i] = alias;
+			for (String text : builder.nodes.get(order[i]).aliases) {
+				aliases[alias++] = this.getStringId(text);
+			}
+		}
+		aliasStart[size] = alias;
+		
+		int capacity = Integer.highestOneBit(Math.max(2, edgeCount) * 2 - 1) << 1;
+		this.edgeKeys = new long[capacity];
+		this.edgeNodes = new int[capacity];
+		Arrays.fill(edgeNodes, -1);
+		
+		// Siblings are added in order, names before aliases, so like the regular sub commands the first one matching wins.
+		for (int parent = 0; parent < size; parent++) {
+			for (int child = childStart[parent]; child < childStart[parent] + childCount[parent]; child++) {
+				this.addEdge(parent, names[child], child);
+				for (int j = aliasStart[child]; j < aliasStart[child + 1]; j++) {
+					this.addEdge(parent, aliases[j], child);
+				}
+			}
+		}
+	}
+	
+	public static @NotNull Builder builder() {
+		return new Builder();
+	}
+	
+	/**
+	 * Builds a compact tree from existing sub commands and their sub commands, each node handled by its own sub command.
+	 *
+	 * @param subcommands top level sub commands
+	 * @return the compact tree
+	 */
+	public static @NotNull CompactCommandTree from(@NotNull Collection<SubCommand> subcommands) {
+		Builder builder = new Builder();
+		for (SubCommand subcommand : subcommands) {
+			builder.add(ROOT, subcommand);
+		}
+		return builder.build();
+	}
+	
+	protected void addEdge(int parent, int text, int child) {
+		long key = ((long) parent << 32) | (text & 0xFFFFFFFFL);
+		int mask = edgeKeys.length - 1;
+		for (int slot = hash(key) & mask; ; slot = (slot + 1) & mask) {
+			if (edgeNodes[slot] < 0) {
+				edgeKeys[slot] = key;
+				edgeNodes[slot] = child;
+				return;
+			}
+			if (edgeKeys[slot] == key) {
+				return;
+			}
+		}
+	}
+	
+	protected static int hash(long key) {
+		key *= 0x9E3779B97F4A7C15L;
+		return (int) (key ^ (key >>> 32));
+	}
+	
+	/**
+	 * Returns the id of a text in the pool, or a negative number if it's not there.
+	 */
+	protected int getStringId(@NotNull String text) {
+		return Arrays.binarySearch(strings, text);
+	}
+	
+	/**
+	 * Returns the child of a node with the name or alias, or -1 if there is none.
+	 *
+	 * @param parent parent node
+	 * @param argument name or alias of the child
+	 * @return the child node, otherwise -1
+	 */
+	public int getChild(int parent, @NotNull String argument) {
+		int text = this.getStringId(argument);
+		if (text < 0) {
+			return -1;
+		}
+		long key = ((long) parent << 32) | text;
+		int mask = edgeKeys.length - 1;
+		for (int slot = hash(key) & mask; edgeNodes[slot] >= 0; slot = (slot + 1) & mask) {
+			if (edgeKeys[slot] == key) {
+				return edgeNodes[slot];
+			}
+		}
+		return -1;
+	}
+	
+	public int size() {
+		return names.length;
+	}
+	
+	public @NotNull String getName(int node) {
+		return strings[names[node]];
+	}
+	
+	public @NotNull String getInfo(int node) {
+		return infos[node] >= 0 ? strings[infos[node]] : "";
+	}
+	
+	public @Nullable String getPermission(int node) {
+		return permissions[node] >= 0 ? strings[permissions[node]] : null;
+	}
+	
+	public @NotNull String[] getAliases(int node) {
+		String[] result = new String[aliasStart[node + 1] - aliasStart[node]];
+		for (int i = 0; i < result.length; i++) {
+			result[i] = strings[aliases[aliasStart[node] + i]];
+		}
+		return result;
+	}
+	
+	/**
+	 * Returns the usage of a node. The rows are shared with other nodes, they must not be changed.
+	 */
+	public @NotNull String[][] getUsage(int node) {
+		if (usages[node] < 0) {
+			return NO_USAGE;
+		}
+		int[] usage = usageTable[usages[node]];
+		String[][] result = new String[usage.length][];
+		for (int i = 0; i < usage.length; i++) {
+			result[i] = rows[usage[i]];
+		}
+		return result;
+	}
+	
+	public int getUsageLength(int node) {
+		return usages[node] < 0 ? 0 : usageTable[usages[node]].length;
+	}
+	
+	public @NotNull String[] getUsageRow(int node, int index) {
+		return rows[usageTable[usages[node]][index]];
+	}
+	
+	public @Nullable SubCommand getHandler(int node) {
+		return handlers[node] >= 0 ? handlerTable[handlers[node]] : null;
+	}
+	
+	/**
+	 * Returns every sub command handling nodes of the tree.
+	 */
+	public @NotNull List<SubCommand> getHandlers() {
+		return Arrays.asList(handlerTable);
+	}
+	
+	public boolean acceptsOverflows(int node) {
+		return (flags[node] & ACCEPT_OVERFLOWS) != 0;
+	}
+	
+	public boolean acceptsSelectors(int node) {
+		return (flags[node] & ACCEPT_SELECTORS) != 0;
+	}
+	
+	/**
+	 * Checks if a sender can see and run a node: it has the node's permission, if any, and its handler allows it.
+	 */
+	public boolean senderHasPermission(@NotNull CommandSender sender, int node) {
+		if (permissions[node] >= 0 && !sender.hasPermission(strings[permissions[node]])) {
+			return false;
+		}
+		SubCommand handler = this.getHandler(node);
+		return handler != null && handler.senderHasPermission(sender);
+	}
+	
+	/**
+	 * Same as the manager's query of sub commands, finding the node matching the arguments.
+	 *
+	 * @param manager manager checking the keywords
+	 * @param sender sender of the command, used to check permissions and evaluate selectors
+	 * @param arguments list of arguments to compare
+	 * @return the result of the query, with the node found and its handler as the sub command
+	 */
+	public @NotNull SubCommandResult query(@NotNull CommandManager manager, @NotNull CommandSender sender, @NotNull String[] arguments) {
+		int node = arguments.length > 0 ? this.getChild(ROOT, arguments[0]) : -1;
+		if (node < 0 || !this.senderHasPermission(sender, node)) {
+			return new SubCommandResult(null, arguments, 0);
+		}
+		
+		int depth = 0;
+		while (true) {
+			if (arguments.length == depth + 1) {
+				return this.result(node, arguments, depth, true, false, null, new ArrayList<>());
+			}
+			if (this.acceptsOverflows(node)) {
+				return this.result(node, arguments, depth + 1, true, false, null, new ArrayList<>());
+			}
+			
+			int child = this.getChild(node, arguments[depth + 1]);
+			if (child >= 0 && this.senderHasPermission(sender, child)) {
+				node = child;
+				depth++;
+				continue;
+			}
+			
+			List<Player> targets = new ArrayList<>();
+			int usageLength = this.getUsageLength(node);
+			boolean valid = true;
+			int i;
+			for (i = 0; i < usageLength && i < arguments.length - depth - 1; i++) {
+				if (!manager.acceptsArgument(sender, this.acceptsSelectors(node), this.getUsageRow(node, i), arguments[depth + 1 + i], targets)) {
+					valid = false;
+					break;
+				}
+			}
+			
+			if (valid && arguments.length - depth - 1 <= usageLength) {
+				return this.result(node, arguments, depth + i, true, true, i - 1, targets);
+			}
+			return this.result(node, arguments, depth + i + 1, false, true, i - (valid ? 1 : 0), targets);
+		}
+	}
+	
+	protected @NotNull SubCommandResult result(int node, @NotNull String[] arguments, int index, boolean isValid, boolean isUsage, @Nullable Integer usageIndex, @NotNull List<Player> targets) {
+		SubCommandResult result = new SubCommandResult(this.getHandler(node), arguments, index, isValid, isUsage, usageIndex);
+		result.tree = this;
+		result.node = node;
+		result.targets = targets;
+		return result;
+	}
+	
+	/**
+	 * Same as the manager's tab completion, adding the options of the argument being typed, the last one.
+	 *
+	 * @param manager manager adding the keywords' options
+	 * @param sender sender typing
+	 * @param command command being typed
+	 * @param alias alias of the command used
+	 * @param arguments arguments typed so far
+	 * @param options list to add the options to
+	 */
+	public void complete(@NotNull CommandManager manager, @NotNull CommandSender sender, @NotNull Command command, @NotNull String alias, @NotNull String[] arguments, @NotNull List<String> options) {
+		String argument = arguments.length > 0 ? arguments[arguments.length - 1] : "";
+		if (arguments.length <= 1) {
+			this.addChildOptions(manager, sender, ROOT, argument, options);
+			return;
+		}
+		
+		SubCommandResult result = this.query(manager, sender, Arrays.copyOfRange(arguments, 0, arguments.length - 1));
+		if (!result.isValid()) {
+			return;
+		}
+		
+		int node = result.node;
+		int usageLength = this.getUsageLength(node);
+		if (!result.isUsage) {
+			this.addChildOptions(manager, sender, node, argument, options);
+			if (usageLength > 0) {
+				manager.addUsageOptions(options, this.acceptsSelectors(node), this.getUsageRow(node, 0), argument);
+			}
+		} else if (result.currentUsageIndex + 1 < usageLength) {
+			manager.addUsageOptions(options, this.acceptsSelectors(node), this.getUsageRow(node, result.currentUsageIndex + 1), argument);
+		} else {
+			return;
+		}
+		
+		List<String> tabResult = result.subcommand.onTabComplete(sender, command, alias, result);
+		if (tabResult != null) {
+			options.addAll(tabResult);
+		}
+	}
+	
+	/**
+	 * Adds the names of the children of a node containing the argument typed, that the sender has permission to.
+	 * Top level names of a regular sub command are left out, as the command runs that one.
+	 */
+	protected void addChildOptions(@NotNull CommandManager manager, @NotNull CommandSender sender, int parent, @NotNull String argument, @NotNull List<String> options) {
+		String typed = argument.toLowerCase();
+		for (int child = childStart[parent]; child < childStart[parent] + childCount[parent]; child++) {
+			String name = strings[names[child]];
+			// The text is checked first, so only the few children left have their permission checked.
+			if (name.length() > 0 && name.toLowerCase().contains(typed) && this.senderHasPermission(sender, child)) {
+				if (parent != ROOT || manager.getTree().get(name, sender) == null) {
+					options.add(name);
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Estimates how many bytes of heap the tree takes, for a 64 bit JVM with compressed references, counting object and array headers and alignment but not the handlers.
+	 * Compare with {@link #estimateFootprint(Collection)} of the same tree as sub commands, or measure both with {@code CompactTreeFootprintBenchmark}.
+	 *
+	 * @return the estimated bytes
+	 */
+	public long estimateFootprint() {
+		// Object with 16 reference fields.
+		long bytes = align(12 + 16 * 4);
+		bytes += arrayBytes(strings.length, 4) + stringsBytes(Arrays.asList(strings));
+		// Names, infos, permissions, handlers, child starts, child counts and usages, an int per node each.
+		bytes += arrayBytes(names.length, 4) * 7 + arrayBytes(flags.length, 1) + arrayBytes(aliasStart.length, 4) + arrayBytes(aliases.length, 4);
+		bytes += arrayBytes(handlerTable.length, 4);
+		bytes += arrayBytes(usageTable.length, 4);
+		for (int[] usage : usageTable) {
+			bytes += arrayBytes(usage.length, 4);
+		}
+		bytes += arrayBytes(rows.length, 4);
+		for (String[] row : rows) {
+			bytes += arrayBytes(row.length, 4);
+		}
+		bytes += arrayBytes(edgeKeys.length, 8) + arrayBytes(edgeNodes.length, 4);
+		return bytes;
+	}
+	
+	/**
+	 * Estimates how many bytes of heap sub commands and their sub commands take, for a 64 bit JVM with compressed references.
+	 * Texts shared by more than one sub command are only counted once, handlers' own fields are not counted.
+	 *
+	 * @param subcommands top level sub commands
+	 * @return the estimated bytes
+	 */
+	public static long estimateFootprint(@NotNull Collection<SubCommand> subcommands) {
+		IdentityHashMap<Object, Boolean> seen = new IdentityHashMap<>();
+		List<String> texts = new ArrayList<>();
+		ArrayDeque<SubCommand> queue = new ArrayDeque<>(subcommands);
+		long bytes = 0;
+		
+		while (!queue.isEmpty()) {
+			SubCommand subcommand = queue.poll();
+			if (seen.put(subcommand, true) != null) {
+				continue;
+			}
+			// Object with 12 reference fields, and its list of sub commands, which shares an empty array until the first is added.
+			bytes += align(12 + 12 * 4) + align(12 + 4 + 4 + 4);
+			if (!subcommand.subcommands.isEmpty()) {
+				bytes += arrayBytes(Math.max(10, subcommand.subcommands.size()), 4);
+			}
+			if (seen.put(subcommand.aliases, true) == null) {
+				bytes += arrayBytes(subcommand.aliases.length, 4);
+			}
+			if (seen.put(subcommand.usage, true) == null) {
+				bytes += arrayBytes(subcommand.usage.length, 4);
+				for (String[] row : subcommand.usage) {
+					if (seen.put(row, true) == null) {
+						bytes += arrayBytes(row.length, 4);
+						texts.addAll(Arrays.asList(row));
+					}
+				}
+			}
+			texts.add(subcommand.name);
+			texts.add(subcommand.info);
+			texts.addAll(Arrays.asList(subcommand.aliases));
+			queue.addAll(subcommand.subcommands);
+		}
+		
+		List<String> unique = new ArrayList<>();
+		for (String text : texts) {
+			if (text != null && seen.put(text, true) == null) {
+				unique.add(text);
+			}
+		}
+		return bytes + stringsBytes(unique);
+	}
+	
+	protected static long stringsBytes(@NotNull List<String> texts) {
+		long bytes = 0;
+		for (String text : texts) {
+			bytes += align(12 + 4 + 4 + 4) + arrayBytes(text.length(), 2);
+		}
+		return bytes;
+	}
+	
+	protected static long arrayBytes(int length, int elementBytes) {
+		return align(16 + (long) length * elementBytes);
+	}
+	
+	protected static long align(long bytes) {
+		return (bytes + 7) & ~7L;
+	}
+	
+	/**
+	 * Collects the nodes of a {@link CompactCommandTree}. Node ids given by {@code add} are only valid while building.
+	 */
+	public static class Builder {
+		
+		protected static class Node {
+			protected final String name;
+			protected final @Nullable SubCommand handler;
+			protected final List<Integer> children = new ArrayList<>(0);
+			protected List<String> aliases = new ArrayList<>(0);
+			protected @Nullable String info;
+			protected @Nullable String permission;
+			protected String[][] usage = NO_USAGE;
+			protected boolean acceptOverflows;
+			protected boolean acceptSelectors;
+			
+			protected Node(@NotNull String name, @Nullable SubCommand handler) {
+				this.name = name;
+				this.handler = handler;
+			}
+		}
+		
+		protected final List<Node> nodes = new ArrayList<>();
+		
+		protected Builder() {
+			nodes.add(new Node("", null));
+		}
+		
+		/**
+		 * Adds a node.
+		 *
+		 * @param parent parent node, {@link #ROOT} for a top level node
+		 * @param name name of the node
+		 * @param handler sub command running the node, can be shared by many nodes
+		 * @return the id of the node, to add children or set more details
+		 */
+		public int add(int parent, @NotNull String name, @NotNull SubCommand handler) {
+			nodes.add(new Node(name, handler));
+			nodes.get(parent).children.add(nodes.size() - 1);
+			return nodes.size() - 1;
+		}
+		
+		/**
+		 * Adds a node from a sub command and its sub commands, each node handled by its own sub command.
+		 *
+		 * @param parent parent node
+		 * @param subcommand sub command to be added
+		 * @return the id of the node
+		 */
+		public int add(int parent, @NotNull SubCommand subcommand) {
+			int node = this.add(parent, subcommand.name, subcommand);
+			this.setAliases(node, subcommand.aliases)
+				.setInfo(node, subcommand.info)
+				.setUsage(node, subcommand.usage)
+				.setAcceptOverflows(node, subcommand.acceptOverflows)
+				.setAcceptSelectors(node, subcommand.acceptSelectors);
+			for (SubCommand child : subcommand.subcommands) {
+				this.add(node, child);
+			}
+			return node;
+		}
+		
+		public @NotNull Builder setAliases(int node, @NotNull String... aliases) {
+			nodes.get(node).aliases = Arrays.asList(aliases);
+			return this;
+		}
+		
+		public @NotNull Builder setInfo(int node, @Nullable String info) {
+			nodes.get(node).info = info;
+			return this;
+		}
+		
+		/**
+		 * Sets a permission the sender must have for the node, besides the handler's {@code onPermission}, and returns itself for chaining.
+		 */
+		public @NotNull Builder setPermission(int node, @Nullable String permission) {
+			nodes.get(node).permission = permission;
+			return this;
+		}
+		
+		public @NotNull Builder setUsage(int node, @NotNull String[][] usage) {
+			nodes.get(node).usage = usage;
+			return this;
+		}
+		
+		public @NotNull Builder setAcceptOverflows(int node, boolean acceptOverflows) {
+			nodes.get(node).acceptOverflows = acceptOverflows;
+			return this;
+		}
+		
+		public @NotNull Builder setAcceptSelectors(int node, boolean acceptSelectors) {
+			nodes.get(node).acceptSelectors = acceptSelectors;
+			return this;
+		}
+		
+		public @NotNull CompactCommandTree build() {
+			return new CompactCommandTree(this);
+		}
+	}
+}
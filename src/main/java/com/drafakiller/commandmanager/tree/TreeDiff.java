@@ -0,0 +1,125 @@
+package com.drafakiller.commandmanager.tree;
+
+import com.drafakiller.commandmanager.SubCommand;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Differences between the current sub commands of a manager and their new definitions, matched by name.
+ * Sub commands sharing a name are matched in order, the first definition with the first current one and so on.
+ * <p>
+ * Sub commands defined the same, see {@link SubCommand#isSameDefinition(SubCommand)}, are kept as they are, the new definition is dropped.
+ * Changed sub commands are replaced by the new definition, which keeps the unchanged sub commands of the old one, so only what changed has to be indexed again.
+ */
+public class TreeDiff {
+	
+	/**
+	 * New top level sub commands, in the order of the definitions, with the kept ones in place of their definitions.
+	 */
+	public final List<SubCommand> merged = new ArrayList<>();
+	
+	public final List<SubCommand> added = new ArrayList<>();
+	public final List<SubCommand> kept = new ArrayList<>();
+	public final List<SubCommand> removed = new ArrayList<>();
+	
+	/**
+	 * Changed sub commands, and the old ones they replace, at the same positions.
+	 */
+	public final List<SubCommand> changed = new ArrayList<>();
+	public final List<SubCommand> replaced = new ArrayList<>();
+	
+	/**
+	 * Compares the current sub commands with their new definitions.
+	 * The definitions must not be in use yet, the unchanged sub commands inside them are replaced by the current ones.
+	 *
+	 * @param current current top level sub commands
+	 * @param definitions new top level sub commands
+	 * @return the differences
+	 */
+	public static @NotNull TreeDiff compute(@NotNull Collection<SubCommand> current, @NotNull Collection<SubCommand> definitions) {
+		TreeDiff diff = new TreeDiff();
+		HashMap<String, ArrayDeque<SubCommand>> old = byName(current);
+		
+		for (SubCommand definition : definitions) {
+			SubCommand previous = poll(old, definition.name);
+			if (previous == null) {
+				diff.added.add(definition);
+				diff.merged.add(definition);
+			} else if (previous == definition || previous.isSameDefinition(definition)) {
+				diff.kept.add(previous);
+				diff.merged.add(previous);
+			} else {
+				keepUnchanged(previous, definition);
+				diff.changed.add(definition);
+				diff.replaced.add(previous);
+				diff.merged.add(definition);
+			}
+		}
+		
+		Set<SubCommand> used = Collections.newSetFromMap(new IdentityHashMap<>());
+		used.addAll(diff.merged);
+		used.addAll(diff.replaced);
+		for (SubCommand subcommand : current) {
+			if (!used.contains(subcommand)) {
+				diff.removed.add(subcommand);
+			}
+		}
+		return diff;
+	}
+	
+	/**
+	 * Puts the old sub commands in place of the new definitions that are the same, inside a changed sub command.
+	 */
+	protected static void keepUnchanged(@NotNull SubCommand previous, @NotNull SubCommand definition) {
+		HashMap<String, ArrayDeque<SubCommand>> old = byName(previous.subcommands);
+		for (int i = 0; i < definition.subcommands.size(); i++) {
+			SubCommand child = definition.subcommands.get(i);
+			SubCommand previousChild = poll(old, child.name);
+			if (previousChild == null) {
+				continue;
+			}
+			if (previousChild.isSameDefinition(child)) {
+				definition.subcommands.set(i, previousChild);
+			} else {
+				keepUnchanged(previousChild, child);
+			}
+		}
+	}
+	
+	/**
+	 * Groups sub commands by name, in order, as many can share a name with different arguments.
+	 */
+	protected static @NotNull HashMap<String, ArrayDeque<SubCommand>> byName(@NotNull Collection<SubCommand> subcommands) {
+		HashMap<String, ArrayDeque<SubCommand>> byName = new HashMap<>();
+		for (SubCommand subcommand : subcommands) {
+			byName.computeIfAbsent(subcommand.name, name -> new ArrayDeque<>()).addLast(subcommand);
+		}
+		return byName;
+	}
+	
+	/**
+	 * Takes the first sub command not matched yet with a name, so each one is matched once, in order.
+	 */
+	protected static @Nullable SubCommand poll(@NotNull HashMap<String, ArrayDeque<SubCommand>> byName, @NotNull String name) {
+		ArrayDeque<SubCommand> subcommands = byName.get(name);
+		return subcommands != null ? subcommands.pollFirst() : null;
+	}
+	
+	public boolean isEmpty() {
+		return added.isEmpty() && changed.isEmpty() && removed.isEmpty();
+	}
+	
+	@Override
+	public String toString() {
+		return added.size() + " added, " + changed.size() + " changed, " + removed.size() + " removed, " + kept.size() + " kept";
+	}
+}
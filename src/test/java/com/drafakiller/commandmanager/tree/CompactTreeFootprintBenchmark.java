@@ -0,0 +1,103 @@
+package com.drafakiller.commandmanager.tree;
+
+import com.drafakiller.commandmanager.SubCommand;
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Measures the heap retained by the same generated tree built as {@link SubCommand} objects and as a {@link CompactCommandTree}, next to their estimates.
+ * <p>
+ * The tree is a {@code warp} sub command with one child per warp, each with an alias, an info and a usage, like a tree generated from configuration.
+ * As when read from a file, every node gets its own copy of the info and usage, which the compact tree keeps once.
+ * Run it with the amount of warps as argument, 100000 by default, and a heap large enough for both, for example {@code -Xmx512m}.
+ * The heap used is read after collecting the garbage a few times, so the results are close but not exact.
+ */
+public class CompactTreeFootprintBenchmark {
+	
+	protected static final String INFO = "Teleports to a warp";
+	protected static final String[][] USAGE = { { "%player%" }, { "fast", "slow" } };
+	
+	protected static class Handler extends SubCommand {
+		protected Handler(@NotNull String name, @NotNull String... aliases) {
+			this.name = name;
+			this.aliases = aliases;
+			this.info = copy(INFO);
+			this.usage = copy(USAGE);
+		}
+	}
+	
+	public static void main(String[] args) {
+		int warps = args.length > 0 ? Integer.parseInt(args[0]) : 100000;
+		MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+		
+		long before = usedHeap(memory);
+		List<SubCommand> subcommands = buildSubCommands(warps);
+		long objects = usedHeap(memory) - before;
+		long objectsEstimate = CompactCommandTree.estimateFootprint(subcommands);
+		System.out.println("Sub commands:  " + subcommands.get(0).subcommands.size() + " warps, measured " + objects + " bytes, estimated " + objectsEstimate + " bytes");
+		subcommands = null;
+		
+		before = usedHeap(memory);
+		CompactCommandTree tree = buildCompactTree(warps);
+		long compact = usedHeap(memory) - before;
+		System.out.println("Compact tree:  " + (tree.size() - 2) + " warps, measured " + compact + " bytes, estimated " + tree.estimateFootprint() + " bytes");
+		
+		System.out.printf("Compact tree takes %.1f%% of the sub commands' heap%n", compact * 100D / objects);
+	}
+	
+	protected static @NotNull List<SubCommand> buildSubCommands(int warps) {
+		Handler warp = new Handler("warp", "w");
+		for (int i = 0; i < warps; i++) {
+			warp.addSubCommand(new Handler("warp" + i, "w" + i));
+		}
+		List<SubCommand> subcommands = new ArrayList<>();
+		subcommands.add(warp);
+		return subcommands;
+	}
+	
+	protected static @NotNull CompactCommandTree buildCompactTree(int warps) {
+		Handler handler = new Handler("warp");
+		CompactCommandTree.Builder builder = CompactCommandTree.builder();
+		int warp = builder.add(CompactCommandTree.ROOT, "warp", handler);
+		builder.setAliases(warp, "w").setInfo(warp, INFO).setUsage(warp, USAGE);
+		for (int i = 0; i < warps; i++) {
+			int node = builder.add(warp, "warp" + i, handler);
+			builder.setAliases(node, "w" + i).setInfo(node, copy(INFO)).setUsage(node, copy(USAGE));
+		}
+		return builder.build();
+	}
+	
+	/**
+	 * Returns a new copy of a text, like each read of a configuration file gives.
+	 */
+	protected static @NotNull String copy(@NotNull String text) {
+		return new String(text.toCharArray());
+	}
+	
+	protected static @NotNull String[][] copy(@NotNull String[][] usage) {
+		String[][] copy = new String[usage.length][];
+		for (int i = 0; i < usage.length; i++) {
+			copy[i] = new String[usage[i].length];
+			for (int j = 0; j < usage[i].length; j++) {
+				copy[i][j] = copy(usage[i][j]);
+			}
+		}
+		return copy;
+	}
+	
+	protected static long usedHeap(@NotNull MemoryMXBean memory) {
+		for (int i = 0; i < 5; i++) {
+			System.gc();
+			try {
+				Thread.sleep(50);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+		return memory.getHeapMemoryUsage().getUsed();
+	}
+}